@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationGatewayBenchmark {
+
+  private final LocationGateway locationGateway = new LocationGateway();
+
+  // not constants, so the lookups cannot be folded away
+  private String known = "EINDHOVEN-001";
+  private String unknown = "UTRECHT-001";
+
+  @Benchmark
+  public Location resolveKnown() {
+    return locationGateway.resolveByIdentifier(known);
+  }
+
+  @Benchmark
+  public Location resolveUnknown() {
+    return locationGateway.resolveByIdentifier(unknown);
+  }
+}
@@ -0,0 +1,78 @@
+package com.fulfilment.application.monolith.products;
+
+import com.fulfilment.application.monolith.products.ProductSearchIndex.Query;
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Searches and updates of an index holding {@link #products} products with generated names. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchIndexBenchmark {
+
+  private static final String[] WORDS = {
+    "tonstad", "kallax", "bestå", "hemnes", "billy", "malm", "poäng", "lack", "ektorp", "expedit",
+    "shelf", "drawer", "insert", "white", "oak", "birch", "black", "brown", "lamp", "desk"
+  };
+
+  @Param({"100000", "1000000"})
+  int products;
+
+  private ProductSearchIndex index;
+  private SplittableRandom random;
+  private long sequence;
+
+  @Setup
+  public void setUp() {
+    random = new SplittableRandom(42);
+    index = new ProductSearchIndex();
+    for (long id = 1; id <= products; id++) {
+      index.put(id, name(id), BigDecimal.valueOf(random.nextInt(100_000), 2), random.nextInt(50));
+    }
+  }
+
+  @Benchmark
+  public long[] substring() {
+    return index.search(new Query("ektorp bir", false, null, null, false), 0, 50);
+  }
+
+  @Benchmark
+  public long[] prefixInStockWithinPrice() {
+    return index.search(
+        new Query("hemnes", true, new BigDecimal("10"), new BigDecimal("50"), true), 0, 50);
+  }
+
+  @Benchmark
+  public long[] rareName() {
+    return index.search(new Query("desk 12345", false, null, null, false), 0, 50);
+  }
+
+  @Benchmark
+  public void update() {
+    long id = 1 + sequence++ % products;
+    index.put(id, name(id + 1), BigDecimal.TEN, 1);
+  }
+
+  private static String name(long id) {
+    return WORDS[(int) (id % WORDS.length)]
+        + " "
+        + WORDS[(int) (id / WORDS.length % WORDS.length)]
+        + " "
+        + id;
+  }
+}
@@ -0,0 +1,92 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The entity to domain to API bean mapping behind the warehouse stream, against the row projection
+ * the other warehouse reads use. Run with {@code -prof gc} to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseMappingBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  int warehouses;
+
+  private final WarehouseResourceImpl resource = new WarehouseResourceImpl();
+  private List<DbWarehouse> rows;
+  private List<Object[]> tuples;
+
+  @Setup
+  public void setUp() {
+    rows = new ArrayList<>(warehouses);
+    for (int i = 0; i < warehouses; i++) {
+      DbWarehouse row = new DbWarehouse();
+      row.id = (long) i;
+      row.businessUnitCode = "MWH." + i;
+      row.location = "AMSTERDAM-001";
+      row.capacity = 100;
+      row.stock = 10;
+      row.createdAt = LocalDateTime.now();
+      rows.add(row);
+    }
+    tuples = new ArrayList<>(warehouses);
+    for (DbWarehouse row : rows) {
+      tuples.add(
+          new Object[] {
+            row.id,
+            row.businessUnitCode,
+            row.location,
+            row.capacity,
+            row.stock,
+            row.createdAt,
+            row.version
+          });
+    }
+  }
+
+  @Benchmark
+  public List<com.warehouse.api.beans.Warehouse> toWarehouseResponse() {
+    List<com.warehouse.api.beans.Warehouse> responses = new ArrayList<>(rows.size());
+    for (DbWarehouse row : rows) {
+      responses.add(resource.toWarehouseResponse(row));
+    }
+    return responses;
+  }
+
+  @Benchmark
+  public List<com.warehouse.api.beans.Warehouse> projectRows() {
+    List<com.warehouse.api.beans.Warehouse> responses = new ArrayList<>(tuples.size());
+    for (Object[] tuple : tuples) {
+      responses.add(
+          WarehouseResourceImpl.RESPONSE.map(
+              (Long) tuple[0],
+              (String) tuple[1],
+              (String) tuple[2],
+              (Integer) tuple[3],
+              (Integer) tuple[4],
+              (LocalDateTime) tuple[5],
+              (Integer) tuple[6]));
+    }
+    return responses;
+  }
+}
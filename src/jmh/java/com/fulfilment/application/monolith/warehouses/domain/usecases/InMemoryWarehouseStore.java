@@ -0,0 +1,152 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pre-populated {@link WarehouseStore} fake. Writes are counted but not kept, so the store stays
+ * the same size however many iterations a benchmark runs.
+ */
+class InMemoryWarehouseStore implements WarehouseStore {
+
+  private final Map<String, Warehouse> activeByCode = new HashMap<>();
+  private final Map<String, LocationUsage> usageByLocation = new HashMap<>();
+
+  long writes;
+
+  void add(Warehouse warehouse) {
+    activeByCode.put(warehouse.businessUnitCode, warehouse);
+    LocationUsage usage =
+        usageByLocation.computeIfAbsent(warehouse.location, l -> new LocationUsage(l, 0, 0));
+    usage.activeWarehouses++;
+    usage.totalCapacity += warehouse.capacity;
+  }
+
+  @Override
+  public List<Warehouse> getAll() {
+    return new ArrayList<>(activeByCode.values());
+  }
+
+  @Override
+  public void create(Warehouse warehouse) {
+    writes++;
+  }
+
+  @Override
+  public void createAll(List<Warehouse> warehouses) {
+    writes += warehouses.size();
+  }
+
+  @Override
+  public void archive(Warehouse warehouse) {
+    writes++;
+  }
+
+  @Override
+  public void archiveAll(List<Warehouse> warehouses) {
+    writes += warehouses.size();
+  }
+
+  @Override
+  public void remove(Warehouse warehouse) {
+    writes++;
+  }
+
+  @Override
+  public Integer adjustStock(String buCode, int delta) {
+    Warehouse stored = activeByCode.get(buCode);
+    if (stored == null || stored.stock + delta < 0 || stored.stock + delta > stored.capacity) {
+      return null;
+    }
+    writes++;
+    return stored.stock + delta;
+  }
+
+  @Override
+  public Warehouse findByBusinessUnitCode(String buCode) {
+    Warehouse stored = activeByCode.get(buCode);
+    if (stored == null) {
+      return null;
+    }
+    // a copy, like a store backed by a database hands out
+    Warehouse copy = new Warehouse();
+    copy.id = stored.id;
+    copy.businessUnitCode = stored.businessUnitCode;
+    copy.location = stored.location;
+    copy.capacity = stored.capacity;
+    copy.stock = stored.stock;
+    copy.createdAt = stored.createdAt;
+    copy.version = stored.version;
+    return copy;
+  }
+
+  @Override
+  public void reserveLocations(Collection<String> locations) {
+    // benchmarks run single threaded, there is nothing to wait for
+  }
+
+  @Override
+  public LocationUsage getUsageByLocation(String location) {
+    LocationUsage usage = usageByLocation.get(location);
+    return usage == null
+        ? new LocationUsage(location, 0, 0)
+        : new LocationUsage(location, usage.activeWarehouses, usage.totalCapacity);
+  }
+
+  @Override
+  public Map<String, LocationUsage> getUsageByLocation() {
+    Map<String, LocationUsage> copy = new HashMap<>();
+    usageByLocation.forEach(
+        (location, usage) ->
+            copy.put(
+                location,
+                new LocationUsage(location, usage.activeWarehouses, usage.totalCapacity)));
+    return copy;
+  }
+
+  @Override
+  public Map<String, Warehouse> findByBusinessUnitCodes(Collection<String> buCodes) {
+    Map<String, Warehouse> active = new HashMap<>();
+    for (String code : buCodes) {
+      Warehouse warehouse = findByBusinessUnitCode(code);
+      if (warehouse != null) {
+        active.put(code, warehouse);
+      }
+    }
+    return active;
+  }
+
+  @Override
+  public Set<String> findActiveBusinessUnitCodes(Collection<String> buCodes) {
+    Set<String> active = new HashSet<>();
+    for (String code : buCodes) {
+      if (activeByCode.containsKey(code)) {
+        active.add(code);
+      }
+    }
+    return active;
+  }
+
+  @Override
+  public List<Warehouse> getHistory(String buCode) {
+    Warehouse active = findByBusinessUnitCode(buCode);
+    return active == null ? List.of() : List.of(active);
+  }
+
+  @Override
+  public Warehouse findAsOf(String buCode, LocalDateTime asOf) {
+    Warehouse active = findByBusinessUnitCode(buCode);
+    return active == null || (active.createdAt != null && active.createdAt.isAfter(asOf))
+        ? null
+        : active;
+  }
+}
@@ -0,0 +1,84 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Create and replace use cases against a store holding {@link #warehouses} active warehouses. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseUseCaseBenchmark {
+
+  private static final int LOCATIONS = 1000;
+
+  @Param({"1000", "10000", "100000"})
+  int warehouses;
+
+  private CreateWarehouseUseCase createUseCase;
+  private ReplaceWarehouseUseCase replaceUseCase;
+  private int sequence;
+
+  @Setup
+  public void setUp() {
+    Map<String, Location> locations = new HashMap<>();
+    for (int i = 0; i < LOCATIONS; i++) {
+      String id = "LOCATION-" + i;
+      // room for every warehouse of the benchmark plus the ones being created
+      locations.put(id, new Location(id, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    InMemoryWarehouseStore store = new InMemoryWarehouseStore();
+    for (int i = 0; i < warehouses; i++) {
+      Warehouse warehouse = new Warehouse();
+      warehouse.businessUnitCode = "MWH." + i;
+      warehouse.location = "LOCATION-" + (i % LOCATIONS);
+      warehouse.capacity = 100;
+      warehouse.stock = 10;
+      warehouse.createdAt = LocalDateTime.now();
+      store.add(warehouse);
+    }
+
+    createUseCase = new CreateWarehouseUseCase(store, locations::get, event -> {});
+    replaceUseCase = new ReplaceWarehouseUseCase(store, locations::get, event -> {});
+  }
+
+  @Benchmark
+  public Warehouse create() {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = "NEW." + sequence++;
+    warehouse.location = "LOCATION-" + (sequence % LOCATIONS);
+    warehouse.capacity = 50;
+    warehouse.stock = 5;
+    createUseCase.create(warehouse);
+    return warehouse;
+  }
+
+  @Benchmark
+  public Warehouse replace() {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = "MWH." + (sequence++ % warehouses);
+    warehouse.location = "LOCATION-" + (sequence % LOCATIONS);
+    warehouse.capacity = 100;
+    warehouse.stock = 10;
+    replaceUseCase.replace(warehouse);
+    return warehouse;
+  }
+}
@@ -0,0 +1,210 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The packaged application in its own JVM, as it runs in a pod, together with its database: the
+ * Postgres given by {@code jdbc-url} or else an embedded one started for the run.
+ */
+final class AppUnderTest implements AutoCloseable {
+
+  private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(90);
+
+  /** What the application reports about itself at one moment. */
+  record Sample(Duration cpuTime, double allocatedBytes, double heapUsedBytes) {}
+
+  final String jdbcUrl;
+  final String jdbcUser;
+  final String jdbcPassword;
+  final URI baseUri;
+
+  private final EmbeddedPostgres embedded;
+  private final Process process;
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  private AppUnderTest(
+      String jdbcUrl,
+      String jdbcUser,
+      String jdbcPassword,
+      URI baseUri,
+      EmbeddedPostgres embedded,
+      Process process) {
+    this.jdbcUrl = jdbcUrl;
+    this.jdbcUser = jdbcUser;
+    this.jdbcPassword = jdbcPassword;
+    this.baseUri = baseUri;
+    this.embedded = embedded;
+    this.process = process;
+  }
+
+  static AppUnderTest start(LoadTest.Options options) throws IOException, InterruptedException {
+    EmbeddedPostgres embedded = null;
+    String jdbcUrl = options.jdbcUrl;
+    String user = options.jdbcUser;
+    String password = options.jdbcPassword;
+    if (jdbcUrl == null) {
+      LoadTest.log("Starting embedded Postgres");
+      embedded =
+          EmbeddedPostgres.builder()
+              .setServerConfig("max_connections", "300")
+              .setServerConfig("synchronous_commit", "off")
+              .start();
+      jdbcUrl = embedded.getJdbcUrl("postgres", "postgres");
+      user = "postgres";
+      password = "postgres";
+    }
+
+    Path workDirectory = Files.createTempDirectory("load-test");
+    Path locations = workDirectory.resolve("locations.csv");
+    Seeder.writeLocations(locations, options.locations);
+    int port = freePort();
+
+    List<String> command = new ArrayList<>();
+    command.add(ProcessHandle.current().info().command().orElse("java"));
+    command.addAll(options.appJvmArgs);
+    command.add("-Dquarkus.http.port=" + port);
+    command.add("-Dquarkus.datasource.jdbc.url=" + jdbcUrl);
+    // the reactive client takes the same database without the jdbc: prefix
+    command.add("-Dquarkus.datasource.reactive.url=" + jdbcUrl.substring("jdbc:".length()));
+    command.add("-Dquarkus.datasource.username=" + user);
+    command.add("-Dquarkus.datasource.password=" + password);
+    // every run starts from the migrated schema and the sample data only
+    command.add("-Dquarkus.flyway.clean-at-start=true");
+    command.add("-Dlocation.registry.file=" + locations);
+    command.add("-Dlegacy.store-manager.directory=" + workDirectory);
+    command.add("-Dstores.stock.log-directory=" + workDirectory.resolve("store-stock-log"));
+    command.add("-jar");
+    command.add(options.app.toString());
+
+    LoadTest.log("Starting %s, logging to %s", options.app, options.appLog);
+    Process process =
+        new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(options.appLog.toFile())
+            .start();
+    AppUnderTest app =
+        new AppUnderTest(
+            jdbcUrl,
+            user,
+            password,
+            URI.create("http://localhost:" + port + "/"),
+            embedded,
+            process);
+    try {
+      app.awaitReady(options);
+    } catch (IOException | InterruptedException | RuntimeException e) {
+      app.close();
+      throw e;
+    }
+    return app;
+  }
+
+  private void awaitReady(LoadTest.Options options) throws IOException, InterruptedException {
+    long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+    HttpRequest probe = HttpRequest.newBuilder(baseUri.resolve("warehouse?limit=1")).build();
+    while (System.nanoTime() < deadline) {
+      if (!process.isAlive()) {
+        throw new IllegalStateException("The application exited, see " + options.appLog);
+      }
+      try {
+        if (client.send(probe, BodyHandlers.discarding()).statusCode() == 200) {
+          return;
+        }
+      } catch (ConnectException e) {
+        // not listening yet
+      }
+      Thread.sleep(250);
+    }
+    throw new IllegalStateException("The application did not start, see " + options.appLog);
+  }
+
+  /**
+   * Reads the allocation and heap metrics of the application along with its CPU time. A full
+   * collection runs first: the allocation metric only moves on collections, so without it a phase
+   * is charged with what was allocated since the last one, and the heap would include garbage.
+   */
+  Sample sample() throws IOException, InterruptedException {
+    collectGarbage();
+    String metrics =
+        client
+            .send(
+                HttpRequest.newBuilder(baseUri.resolve("q/metrics")).build(),
+                BodyHandlers.ofString())
+            .body();
+    return new Sample(
+        process.toHandle().info().totalCpuDuration().orElse(Duration.ZERO),
+        sum(metrics, "jvm_gc_memory_allocated_bytes_total"),
+        sum(metrics, "jvm_memory_used_bytes{area=\"heap\""));
+  }
+
+  private void collectGarbage() throws IOException, InterruptedException {
+    Path jcmd = Path.of(System.getProperty("java.home"), "bin", "jcmd");
+    Process gc =
+        new ProcessBuilder(jcmd.toString(), Long.toString(process.pid()), "GC.run")
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+    if (gc.waitFor() != 0) {
+      throw new IllegalStateException("jcmd could not run a collection in the application");
+    }
+    // the metric is updated by the notification of the collection, on another thread
+    Thread.sleep(200);
+  }
+
+  /** Resident memory of the application, or -1 where {@code /proc} is not available. */
+  long residentBytes() {
+    Path status = Path.of("/proc/" + process.pid() + "/status");
+    try {
+      for (String line : Files.readAllLines(status)) {
+        if (line.startsWith("VmRSS:")) {
+          return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+        }
+      }
+    } catch (IOException | UncheckedIOException e) {
+      // not on Linux
+    }
+    return -1;
+  }
+
+  // sum over every series of the metric, e.g. the heap pools
+  private static double sum(String metrics, String prefix) {
+    double total = 0;
+    for (String line : metrics.split("\n")) {
+      if (line.startsWith(prefix)) {
+        total += Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+      }
+    }
+    return total;
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  @Override
+  public void close() throws IOException, InterruptedException {
+    process.destroy();
+    if (!process.waitFor(20, TimeUnit.SECONDS)) {
+      process.destroyForcibly().waitFor();
+    }
+    if (embedded != null) {
+      embedded.close();
+    }
+  }
+}
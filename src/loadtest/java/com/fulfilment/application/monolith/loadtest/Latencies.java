@@ -0,0 +1,77 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import com.fulfilment.application.monolith.loadtest.Workload.Operation;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Response times per operation. Every worker records into its own instance, which are merged once
+ * the phase is over, so recording never contends.
+ */
+final class Latencies {
+
+  private static final int OPERATIONS = Operation.values().length;
+
+  private final long[][] nanos = new long[OPERATIONS][];
+  private final int[] counts = new int[OPERATIONS];
+  private final int[] errors = new int[OPERATIONS];
+  private boolean sorted;
+
+  Latencies() {
+    for (int i = 0; i < OPERATIONS; i++) {
+      nanos[i] = new long[1024];
+    }
+  }
+
+  void record(Operation operation, long elapsedNanos, boolean failed) {
+    int i = operation.ordinal();
+    if (counts[i] == nanos[i].length) {
+      nanos[i] = Arrays.copyOf(nanos[i], nanos[i].length * 2);
+    }
+    nanos[i][counts[i]++] = elapsedNanos;
+    if (failed) {
+      errors[i]++;
+    }
+  }
+
+  static Latencies merge(Collection<Latencies> workers) {
+    Latencies merged = new Latencies();
+    for (int i = 0; i < OPERATIONS; i++) {
+      int total = 0;
+      for (Latencies worker : workers) {
+        total += worker.counts[i];
+      }
+      merged.nanos[i] = new long[Math.max(total, 1)];
+      for (Latencies worker : workers) {
+        System.arraycopy(worker.nanos[i], 0, merged.nanos[i], merged.counts[i], worker.counts[i]);
+        merged.counts[i] += worker.counts[i];
+        merged.errors[i] += worker.errors[i];
+      }
+    }
+    return merged;
+  }
+
+  int count(Operation operation) {
+    return counts[operation.ordinal()];
+  }
+
+  int errors(Operation operation) {
+    return errors[operation.ordinal()];
+  }
+
+  /** The response time below which the fraction {@code p} of the requests completed, in ms. */
+  double percentileMillis(Operation operation, double p) {
+    int i = operation.ordinal();
+    if (counts[i] == 0) {
+      return 0;
+    }
+    if (!sorted) {
+      for (int j = 0; j < OPERATIONS; j++) {
+        Arrays.sort(nanos[j], 0, counts[j]);
+      }
+      sorted = true;
+    }
+    int rank = (int) Math.ceil(p * counts[i]) - 1;
+    return nanos[i][Math.max(rank, 0)] / 1_000_000.0;
+  }
+}
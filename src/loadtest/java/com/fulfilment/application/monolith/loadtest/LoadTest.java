@@ -0,0 +1,297 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.loadtest.AppUnderTest.Sample;
+import com.fulfilment.application.monolith.loadtest.Seeder.Seeded;
+import com.fulfilment.application.monolith.loadtest.Workload.Operation;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Load test of the packaged application, to size its pods. Boots the application against a
+ * Postgres, seeds it with generated data and runs three phases with {@code concurrency} clients
+ * sending requests back to back:
+ *
+ * <ol>
+ *   <li>a warmup with the mixed workload, not reported;
+ *   <li>the mixed workload, reporting throughput and p50/p99 latency per endpoint along with the
+ *       CPU, heap and resident memory of the application;
+ *   <li>each operation on its own, reporting what it allocates per request and per second, which
+ *       the mixed run cannot attribute to an endpoint.
+ * </ol>
+ *
+ * <p>Run with {@code mvn -Pload-test -DskipTests verify}. Options are {@code key=value} pairs in
+ * {@code -Dload.args}, see {@link Options}. The report is printed and written to {@code
+ * target/load-result.json}.
+ */
+public class LoadTest {
+
+  private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+  /** The options of a run, e.g. {@code duration=120s concurrency=64 warehouses=500000}. */
+  static final class Options {
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(60);
+    // length of the run of each operation on its own
+    Duration isolated = Duration.ofSeconds(5);
+    int concurrency = 32;
+    int warehouses = 100_000;
+    int stores = 10_000;
+    int products = 10_000;
+    int locations = 200;
+    // e.g. mix=get:50,list:30,create:20
+    Map<Operation, Integer> mix = Workload.DEFAULT_MIX;
+    // an existing database to use instead of the embedded one, it is cleaned by the application
+    String jdbcUrl;
+    String jdbcUser = "quarkus_test";
+    String jdbcPassword = "quarkus_test";
+    Path app = Path.of("target/quarkus-app/quarkus-run.jar");
+    // comma separated, e.g. app-jvm-args=-Xmx512m,-XX:ActiveProcessorCount=2
+    List<String> appJvmArgs = List.of("-Xmx1g");
+    Path appLog = Path.of("target/load-app.log");
+    Path result = Path.of("target/load-result.json");
+
+    static Options parse(String[] args) {
+      Options options = new Options();
+      for (String arg : args) {
+        int equals = arg.indexOf('=');
+        if (equals < 0) {
+          throw new IllegalArgumentException("Expected key=value: " + arg);
+        }
+        String value = arg.substring(equals + 1);
+        switch (arg.substring(0, equals)) {
+          case "warmup" -> options.warmup = duration(value);
+          case "duration" -> options.duration = duration(value);
+          case "isolated" -> options.isolated = duration(value);
+          case "concurrency" -> options.concurrency = Integer.parseInt(value);
+          case "warehouses" -> options.warehouses = Integer.parseInt(value);
+          case "stores" -> options.stores = Integer.parseInt(value);
+          case "products" -> options.products = Integer.parseInt(value);
+          case "locations" -> options.locations = Integer.parseInt(value);
+          case "mix" -> options.mix = mix(value);
+          case "jdbc-url" -> options.jdbcUrl = value;
+          case "jdbc-user" -> options.jdbcUser = value;
+          case "jdbc-password" -> options.jdbcPassword = value;
+          case "app" -> options.app = Path.of(value);
+          case "app-jvm-args" -> options.appJvmArgs = Arrays.asList(value.split(","));
+          case "result" -> options.result = Path.of(value);
+          default -> throw new IllegalArgumentException("Unknown option: " + arg);
+        }
+      }
+      return options;
+    }
+
+    private static Duration duration(String value) {
+      if (value.endsWith("m")) {
+        return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+      }
+      return Duration.ofSeconds(Long.parseLong(value.replace("s", "")));
+    }
+
+    private static Map<Operation, Integer> mix(String value) {
+      Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+      for (String entry : value.split(",")) {
+        String[] parts = entry.split(":");
+        mix.put(Operation.ofLabel(parts[0]), Integer.parseInt(parts[1]));
+      }
+      return mix;
+    }
+  }
+
+  /** What the application used during a phase. */
+  record Usage(double seconds, double cpuCores, double allocatedBytes, double heapUsedBytes) {
+
+    static Usage between(Sample before, Sample after, Duration phase) {
+      // the phase, not the samples around it, which take a while to collect garbage
+      double seconds = phase.toNanos() / 1e9;
+      return new Usage(
+          seconds,
+          after.cpuTime().minus(before.cpuTime()).toNanos() / 1e9 / seconds,
+          after.allocatedBytes() - before.allocatedBytes(),
+          after.heapUsedBytes());
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options options = Options.parse(args);
+    try (AppUnderTest app = AppUnderTest.start(options)) {
+      log(
+          "Seeding %d warehouses, %d stores and %d products in %d locations",
+          options.warehouses, options.stores, options.products, options.locations);
+      Seeded data;
+      try (Connection connection =
+          DriverManager.getConnection(app.jdbcUrl, app.jdbcUser, app.jdbcPassword)) {
+        data =
+            Seeder.seed(
+                connection,
+                options.warehouses,
+                options.stores,
+                options.products,
+                options.locations);
+      }
+      Workload workload = new Workload(app.baseUri, data, options.mix);
+
+      log("Warming up for %s", options.warmup);
+      run(workload, options.concurrency, options.warmup, workload::pick);
+
+      log(
+          "Running the mixed workload for %s with %d clients",
+          options.duration, options.concurrency);
+      Sample before = app.sample();
+      Latencies mixed = run(workload, options.concurrency, options.duration, workload::pick);
+      Usage mixedUsage = Usage.between(before, app.sample(), options.duration);
+      long residentBytes = app.residentBytes();
+
+      Map<Operation, Latencies> isolatedLatencies = new EnumMap<>(Operation.class);
+      Map<Operation, Usage> isolatedUsage = new EnumMap<>(Operation.class);
+      for (Operation operation : options.mix.keySet()) {
+        log("Running %s on its own for %s", operation.label(), options.isolated);
+        before = app.sample();
+        isolatedLatencies.put(
+            operation, run(workload, options.concurrency, options.isolated, () -> operation));
+        isolatedUsage.put(operation, Usage.between(before, app.sample(), options.isolated));
+      }
+
+      Map<String, Object> report =
+          report(options, mixed, mixedUsage, residentBytes, isolatedLatencies, isolatedUsage);
+      new ObjectMapper()
+          .writerWithDefaultPrettyPrinter()
+          .writeValue(options.result.toFile(), report);
+      log("Written to %s", options.result);
+    }
+  }
+
+  /**
+   * Runs the operations given by {@code operations} from {@code concurrency} clients, each sending
+   * its next request as soon as the previous one completed, until the duration is over.
+   */
+  static Latencies run(
+      Workload workload, int concurrency, Duration duration, Supplier<Operation> operations) {
+    long deadline = System.nanoTime() + duration.toNanos();
+    List<Latencies> workers = new ArrayList<>(concurrency);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < concurrency; i++) {
+        Latencies latencies = new Latencies();
+        workers.add(latencies);
+        executor.submit(
+            () -> {
+              while (System.nanoTime() < deadline) {
+                Operation operation = operations.get();
+                if (!workload.available(operation)) {
+                  return null;
+                }
+                long start = System.nanoTime();
+                int status;
+                try {
+                  status = workload.send(operation);
+                } catch (IOException e) {
+                  status = 0;
+                }
+                if (status >= 0) {
+                  latencies.record(
+                      operation, System.nanoTime() - start, status == 0 || status >= 400);
+                }
+              }
+              return null;
+            });
+      }
+    }
+    return Latencies.merge(workers);
+  }
+
+  private static Map<String, Object> report(
+      Options options,
+      Latencies mixed,
+      Usage mixedUsage,
+      long residentBytes,
+      Map<Operation, Latencies> isolatedLatencies,
+      Map<Operation, Usage> isolatedUsage) {
+    System.out.printf(
+        "%n%-46s %9s %7s %9s %9s %9s %11s %10s%n",
+        "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "alloc/req", "alloc MB/s");
+    long total = 0;
+    List<Map<String, Object>> endpoints = new ArrayList<>();
+    for (Operation operation : options.mix.keySet()) {
+      int count = mixed.count(operation);
+      total += count;
+      Latencies isolated = isolatedLatencies.get(operation);
+      Usage usage = isolatedUsage.get(operation);
+      int isolatedCount = isolated.count(operation);
+      double allocatedPerRequest = isolatedCount == 0 ? 0 : usage.allocatedBytes() / isolatedCount;
+
+      Map<String, Object> endpoint = new LinkedHashMap<>();
+      endpoint.put("operation", operation.label());
+      endpoint.put("endpoint", operation.endpoint);
+      endpoint.put("requests", count);
+      endpoint.put("errors", mixed.errors(operation));
+      endpoint.put("throughput", count / mixedUsage.seconds());
+      endpoint.put("p50Millis", mixed.percentileMillis(operation, 0.50));
+      endpoint.put("p99Millis", mixed.percentileMillis(operation, 0.99));
+      endpoint.put("isolatedThroughput", isolatedCount / usage.seconds());
+      endpoint.put("allocatedBytesPerRequest", allocatedPerRequest);
+      endpoint.put("allocatedBytesPerSecond", usage.allocatedBytes() / usage.seconds());
+      endpoints.add(endpoint);
+
+      System.out.printf(
+          "%-46s %9d %7d %9.0f %9.2f %9.2f %10.1fK %10.1f%n",
+          operation.endpoint,
+          count,
+          mixed.errors(operation),
+          count / mixedUsage.seconds(),
+          mixed.percentileMillis(operation, 0.50),
+          mixed.percentileMillis(operation, 0.99),
+          allocatedPerRequest / 1024,
+          usage.allocatedBytes() / usage.seconds() / (1024 * 1024));
+    }
+
+    Map<String, Object> application = new LinkedHashMap<>();
+    application.put("throughput", total / mixedUsage.seconds());
+    application.put("cpuCores", mixedUsage.cpuCores());
+    application.put("allocatedBytesPerSecond", mixedUsage.allocatedBytes() / mixedUsage.seconds());
+    application.put("heapUsedBytes", mixedUsage.heapUsedBytes());
+    application.put("residentBytes", residentBytes);
+    System.out.printf(
+        "%nmixed: %.0f req/s on %.2f CPU cores, allocating %.1f MB/s, heap in use %.0f MB,"
+            + " resident %s%n",
+        total / mixedUsage.seconds(),
+        mixedUsage.cpuCores(),
+        mixedUsage.allocatedBytes() / mixedUsage.seconds() / (1024 * 1024),
+        mixedUsage.heapUsedBytes() / (1024 * 1024),
+        residentBytes < 0 ? "unknown" : residentBytes / (1024 * 1024) + " MB");
+    System.out.println(
+        "alloc/req and alloc MB/s come from each endpoint run on its own, heap in use is the live"
+            + " heap after a full collection.");
+
+    Map<String, Object> settings = new LinkedHashMap<>();
+    settings.put("concurrency", options.concurrency);
+    settings.put("durationSeconds", options.duration.toSeconds());
+    settings.put("warehouses", options.warehouses);
+    settings.put("stores", options.stores);
+    settings.put("products", options.products);
+    settings.put("appJvmArgs", options.appJvmArgs);
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("settings", settings);
+    report.put("application", application);
+    report.put("endpoints", endpoints);
+    return report;
+  }
+
+  static void log(String format, Object... args) {
+    System.out.println(TIME.format(LocalTime.now()) + " " + String.format(format, args));
+  }
+}
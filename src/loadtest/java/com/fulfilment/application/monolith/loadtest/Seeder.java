@@ -0,0 +1,135 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the database with generated warehouses, stores and products, one set-based statement per
+ * table, after the application migrated the schema and loaded the sample data.
+ */
+final class Seeder {
+
+  // room for every seeded and created warehouse, so creations are only refused by real conflicts
+  private static final int MAX_WAREHOUSES_PER_LOCATION = 1_000_000;
+  private static final int MAX_CAPACITY_PER_LOCATION = 1_000_000_000;
+
+  static final int CAPACITY = 100;
+  static final int STOCK = 10;
+
+  /** What was seeded. Warehouse {@code i} has id {@code firstWarehouseId + i} and code LT.i. */
+  record Seeded(
+      long firstWarehouseId, int warehouses, long firstStoreId, int stores, int locations) {
+
+    String code(int i) {
+      return "LT." + i;
+    }
+
+    long warehouseId(int i) {
+      return firstWarehouseId + i;
+    }
+
+    String location(int i) {
+      return Seeder.location(i % locations);
+    }
+
+    long storeId(int i) {
+      return firstStoreId + i;
+    }
+
+    String storeName(int i) {
+      return "LT-STORE-" + i;
+    }
+  }
+
+  private Seeder() {}
+
+  static String location(int i) {
+    return String.format("LOAD-%04d", i);
+  }
+
+  /** The location registry the application is started with, generous enough for the load. */
+  static void writeLocations(Path file, int locations) throws IOException {
+    List<String> lines = new ArrayList<>(locations + 1);
+    lines.add("# identification,maxNumberOfWarehouses,maxCapacity");
+    for (int i = 0; i < locations; i++) {
+      lines.add(location(i) + "," + MAX_WAREHOUSES_PER_LOCATION + "," + MAX_CAPACITY_PER_LOCATION);
+    }
+    Files.write(file, lines);
+  }
+
+  static Seeded seed(Connection connection, int warehouses, int stores, int products, int locations)
+      throws SQLException {
+    connection.setAutoCommit(false);
+    long firstWarehouseId = nextId(connection, "warehouse");
+    execute(
+        connection,
+        "insert into warehouse (id, businessUnitCode, location, capacity, stock, createdAt,"
+            + " version) select ? + i, 'LT.' || i, 'LOAD-' || lpad((i % ?)::text, 4, '0'), ?, ?,"
+            + " localtimestamp - i * interval '1 second', 0 from generate_series(0, ? - 1) i",
+        firstWarehouseId,
+        locations,
+        CAPACITY,
+        STOCK,
+        warehouses);
+    // the usage per location is otherwise only kept up to date by the application
+    execute(
+        connection,
+        "insert into location_usage (location, activeWarehouses, totalCapacity)"
+            + " select location, count(*), sum(capacity) from warehouse group by location"
+            + " on conflict (location) do update set activeWarehouses = excluded.activeWarehouses,"
+            + " totalCapacity = excluded.totalCapacity");
+    long firstStoreId = nextId(connection, "store");
+    execute(
+        connection,
+        "insert into store (id, name, quantityProductsInStock)"
+            + " select ? + i, 'LT-STORE-' || i, i % 100 from generate_series(0, ? - 1) i",
+        firstStoreId,
+        stores);
+    long firstProductId = nextId(connection, "product");
+    execute(
+        connection,
+        "insert into product (id, name, description, price, stock)"
+            + " select ? + i, 'LT-PRODUCT-' || i, 'Generated product ' || i,"
+            + " (i % 1000) + 0.99, i % 50 from generate_series(0, ? - 1) i",
+        firstProductId,
+        products);
+    for (String table : List.of("warehouse", "store", "product")) {
+      // the sequences count in steps of 50 and Hibernate takes the block below the next value,
+      // so moving them to the highest id keeps generated ids clear of the seeded ones
+      execute(
+          connection, "select setval('" + table + "_seq', (select max(id) from " + table + "))");
+    }
+    connection.commit();
+    connection.setAutoCommit(true);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("analyze");
+    }
+    return new Seeded(firstWarehouseId, warehouses, firstStoreId, stores, locations);
+  }
+
+  private static long nextId(Connection connection, String table) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet rows = statement.executeQuery("select coalesce(max(id), 0) + 1 from " + table)) {
+      rows.next();
+      return rows.getLong(1);
+    }
+  }
+
+  private static void execute(Connection connection, String sql, Object... parameters)
+      throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      for (int i = 0; i < parameters.length; i++) {
+        statement.setObject(i + 1, parameters[i]);
+      }
+      statement.execute();
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import com.fulfilment.application.monolith.loadtest.Seeder.Seeded;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The requests of the load test. Each operation works on its own share of the seeded warehouses, so
+ * replacements and archives never turn the reads into misses: the first 60% are read, the next 20%
+ * replaced over and over and the last 20% archived, each once.
+ */
+final class Workload {
+
+  enum Operation {
+    LIST("GET /warehouse?limit=50&after={id}"),
+    GET("GET /warehouse/{id}"),
+    CREATE("POST /warehouse"),
+    REPLACE("POST /warehouse/{businessUnitCode}/replacement"),
+    ARCHIVE("DELETE /warehouse/{id}"),
+    STORE_UPDATE("PUT /store/{id}"),
+    STORE_STOCK("POST /store/{id}/stock");
+
+    final String endpoint;
+
+    Operation(String endpoint) {
+      this.endpoint = endpoint;
+    }
+
+    String label() {
+      return name().toLowerCase().replace('_', '-');
+    }
+
+    static Operation ofLabel(String label) {
+      return valueOf(label.toUpperCase().replace('-', '_'));
+    }
+  }
+
+  /**
+   * Read heavy, roughly the shape of the production traffic. Store stock deltas come from the point
+   * of sale traffic rather than this API's clients, so they are only sent when asked for in a mix.
+   */
+  static final Map<Operation, Integer> DEFAULT_MIX = defaultMix();
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  private final HttpClient client;
+  private final URI baseUri;
+  private final Seeded data;
+  private final Operation[] weighted;
+  private final int readable;
+  private final int firstArchivable;
+  private final AtomicLong created = new AtomicLong();
+  private final AtomicInteger archived = new AtomicInteger();
+
+  Workload(URI baseUri, Seeded data, Map<Operation, Integer> mix) {
+    this.client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(TIMEOUT)
+            .build();
+    this.baseUri = baseUri;
+    this.data = data;
+    this.readable = Math.max(1, data.warehouses() * 6 / 10);
+    this.firstArchivable = data.warehouses() * 8 / 10;
+
+    List<Operation> table = new ArrayList<>();
+    mix.forEach(
+        (operation, weight) -> {
+          for (int i = 0; i < weight; i++) {
+            table.add(operation);
+          }
+        });
+    if (table.isEmpty()) {
+      throw new IllegalArgumentException("The mix has no operation with a positive weight");
+    }
+    this.weighted = table.toArray(Operation[]::new);
+  }
+
+  /** A random operation of the mix that still has something to work on. */
+  Operation pick() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int attempt = 0; attempt < 100; attempt++) {
+      Operation operation = weighted[random.nextInt(weighted.length)];
+      if (available(operation)) {
+        return operation;
+      }
+    }
+    return Operation.GET;
+  }
+
+  /** False once every warehouse set aside for archiving was archived. */
+  boolean available(Operation operation) {
+    return operation != Operation.ARCHIVE || firstArchivable + archived.get() < data.warehouses();
+  }
+
+  /** Sends one request of the operation and returns its status, or -1 when none was sent. */
+  int send(Operation operation) throws IOException, InterruptedException {
+    HttpRequest request = request(operation);
+    if (request == null) {
+      return -1;
+    }
+    return client.send(request, BodyHandlers.discarding()).statusCode();
+  }
+
+  private HttpRequest request(Operation operation) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return switch (operation) {
+      case LIST -> get("warehouse?limit=50&after=" + data.warehouseId(random.nextInt(readable)));
+      case GET -> get("warehouse/" + data.warehouseId(random.nextInt(readable)));
+      case CREATE -> {
+        long n = created.incrementAndGet();
+        yield post(
+            "warehouse",
+            warehouse(
+                "LT.NEW." + n, Seeder.location(random.nextInt(data.locations())), Seeder.CAPACITY));
+      }
+      case REPLACE -> {
+        int i = readable + random.nextInt(Math.max(1, firstArchivable - readable));
+        yield post(
+            "warehouse/" + data.code(i) + "/replacement",
+            warehouse(data.code(i), data.location(i), Seeder.CAPACITY + random.nextInt(10)));
+      }
+      case ARCHIVE -> {
+        int i = firstArchivable + archived.getAndIncrement();
+        if (i >= data.warehouses()) {
+          // taken by a concurrent archive since it was picked
+          yield null;
+        }
+        yield request("warehouse/" + data.warehouseId(i)).DELETE().build();
+      }
+      case STORE_UPDATE -> {
+        int i = random.nextInt(data.stores());
+        yield request("store/" + data.storeId(i))
+            .header("Content-Type", "application/json")
+            .PUT(
+                BodyPublishers.ofString(
+                    "{\"name\":\""
+                        + data.storeName(i)
+                        + "\",\"quantityProductsInStock\":"
+                        + random.nextInt(100)
+                        + "}"))
+            .build();
+      }
+      case STORE_STOCK ->
+          post(
+              "store/" + data.storeId(random.nextInt(data.stores())) + "/stock",
+              "{\"delta\":" + (random.nextInt(21) - 10) + "}");
+    };
+  }
+
+  private static String warehouse(String businessUnitCode, String location, int capacity) {
+    return "{\"businessUnitCode\":\""
+        + businessUnitCode
+        + "\",\"location\":\""
+        + location
+        + "\",\"capacity\":"
+        + capacity
+        + ",\"stock\":"
+        + Seeder.STOCK
+        + "}";
+  }
+
+  private HttpRequest get(String path) {
+    return request(path).GET().build();
+  }
+
+  private HttpRequest post(String path, String json) {
+    return request(path)
+        .header("Content-Type", "application/json")
+        .POST(BodyPublishers.ofString(json))
+        .build();
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(TIMEOUT);
+  }
+
+  private static Map<Operation, Integer> defaultMix() {
+    Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    mix.put(Operation.LIST, 25);
+    mix.put(Operation.GET, 40);
+    mix.put(Operation.CREATE, 10);
+    mix.put(Operation.REPLACE, 8);
+    mix.put(Operation.ARCHIVE, 2);
+    mix.put(Operation.STORE_UPDATE, 15);
+    return mix;
+  }
+}
@@ -0,0 +1,127 @@
+package com.fulfilment.application.monolith.changes;
+
+import com.fulfilment.application.monolith.changes.ChangeFeed.Change;
+import com.fulfilment.application.monolith.common.RequestRejectedException;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.Startup;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.jboss.logging.Logger;
+
+/**
+ * Evicts the entities changed on any instance from the second-level cache of this one, as their
+ * changes come in through the {@link ChangeFeed}, and invalidates the cached query results over
+ * their tables. The cache regions are local to each instance and only drop entries that go unused,
+ * so an entry changed elsewhere would otherwise be served for as long as it keeps being read.
+ */
+@Startup
+@ApplicationScoped
+public class ChangeCacheEviction {
+
+  private static final Logger LOGGER = Logger.getLogger(ChangeCacheEviction.class.getName());
+
+  @ConfigProperty(name = "changes.batch-size", defaultValue = "1000")
+  int batchSize;
+
+  @Inject ChangeFeed changeFeed;
+  @Inject SessionFactory sessionFactory;
+
+  // the change feed position the cache is up to date with
+  private volatile long position;
+
+  @PostConstruct
+  void start() {
+    // nothing is cached yet, only what changes from now on has to be evicted
+    position = head();
+  }
+
+  @Scheduled(
+      every = "${changes.cache-eviction-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void evictChanged() {
+    List<Change> changes;
+    do {
+      try {
+        changes = changeFeed.poll(position, batchSize, Duration.ZERO).await().indefinitely();
+      } catch (RequestRejectedException e) {
+        // fell behind the retention of the feed, what changed in between is unknown
+        LOGGER.warnf("Evicting the whole second-level cache: %s", e.getMessage());
+        long head = head();
+        sessionFactory.getCache().evictAll();
+        position = head;
+        return;
+      }
+      evict(changes);
+      if (!changes.isEmpty()) {
+        position = changes.get(changes.size() - 1).position;
+      }
+    } while (changes.size() == batchSize);
+  }
+
+  private void evict(List<Change> changes) {
+    SessionFactoryImplementor factory = sessionFactory.unwrap(SessionFactoryImplementor.class);
+    CacheImplementor cache = factory.getCache();
+    Set<Class<?>> changed = new HashSet<>();
+    for (Change change : changes) {
+      switch (ChangeEvent.EntityType.valueOf(change.entityType)) {
+        case WAREHOUSE -> {
+          // cached by id, while the change names the business unit code
+          cache.evict(DbWarehouse.class);
+          changed.add(DbWarehouse.class);
+        }
+        case STORE -> {
+          cache.evict(Store.class, Long.valueOf(change.entityKey));
+          changed.add(Store.class);
+        }
+        case PRODUCT -> {
+          cache.evict(Product.class, Long.valueOf(change.entityKey));
+          changed.add(Product.class);
+        }
+      }
+    }
+    if (changed.isEmpty()) {
+      return;
+    }
+    // the cached query results are checked against the last write to their tables
+    Set<String> tables = new HashSet<>();
+    for (Class<?> entity : changed) {
+      for (Serializable space :
+          factory.getMappingMetamodel().getEntityDescriptor(entity).getQuerySpaces()) {
+        tables.add((String) space);
+      }
+    }
+    try (StatelessSession session = sessionFactory.openStatelessSession()) {
+      cache
+          .getTimestampsCache()
+          .invalidate(tables.toArray(String[]::new), (SharedSessionContractImplementor) session);
+    }
+  }
+
+  private long head() {
+    return QuarkusTransaction.requiringNew()
+        .call(
+            () ->
+                ((Number)
+                        ChangeEvent.getEntityManager()
+                            .createNativeQuery(
+                                "select coalesce(max(position), 0) from change_event")
+                            .getSingleResult())
+                    .longValue());
+  }
+}
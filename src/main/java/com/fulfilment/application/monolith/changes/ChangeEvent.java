@@ -0,0 +1,59 @@
+package com.fulfilment.application.monolith.changes;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/** A change to a warehouse, store or product, as served by the change feed. */
+@Entity
+@Table(name = "change_event")
+public class ChangeEvent extends PanacheEntity {
+
+  public enum EntityType {
+    WAREHOUSE,
+    STORE,
+    PRODUCT
+  }
+
+  public enum Type {
+    CREATED,
+    UPDATED,
+    REPLACED,
+    ARCHIVED,
+    DELETED
+  }
+
+  // the cursor of the feed, null until numbered by ChangeFeed#sequencePending after the commit
+  @Column(unique = true)
+  public Long position;
+
+  @Enumerated(EnumType.STRING)
+  public EntityType entityType;
+
+  // business unit code of a warehouse, id of a store or product
+  public String entityKey;
+
+  @Enumerated(EnumType.STRING)
+  public Type type;
+
+  // JSON of the entity after the change, or before it when deleted
+  @Column(columnDefinition = "text")
+  public String payload;
+
+  // set by the database on insert
+  @Column(insertable = false, updatable = false)
+  public LocalDateTime recordedAt;
+
+  public ChangeEvent() {}
+
+  public ChangeEvent(EntityType entityType, String entityKey, Type type, String payload) {
+    this.entityType = entityType;
+    this.entityKey = entityKey;
+    this.type = type;
+    this.payload = payload;
+  }
+}
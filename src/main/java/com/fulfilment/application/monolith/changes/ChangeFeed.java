@@ -0,0 +1,255 @@
+package com.fulfilment.application.monolith.changes;
+
+import com.fulfilment.application.monolith.common.RequestRejectedException;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.query.NativeQuery;
+import org.jboss.logging.Logger;
+
+/**
+ * The ordered feed of recorded {@link ChangeEvent}s. Transactions record their events without a
+ * position; this numbers them after they committed, in the order they were recorded, holding an
+ * advisory lock so that instances number one batch after the other. A reader that has seen every
+ * event up to a position therefore never finds an event below it later, which a position taken
+ * while recording would allow whenever transactions commit out of order.
+ *
+ * <p>Events are read through the reactive client, so readers waiting for the next event hold no
+ * thread or connection.
+ */
+@ApplicationScoped
+public class ChangeFeed {
+
+  /** A numbered change as read from the feed, with the entity as JSON. */
+  public static final class Change {
+    public final long position;
+    public final String entityType;
+    public final String entityKey;
+    public final String type;
+    public final LocalDateTime recordedAt;
+    public final String payload;
+
+    Change(
+        long position,
+        String entityType,
+        String entityKey,
+        String type,
+        LocalDateTime recordedAt,
+        String payload) {
+      this.position = position;
+      this.entityType = entityType;
+      this.entityKey = entityKey;
+      this.type = type;
+      this.recordedAt = recordedAt;
+      this.payload = payload;
+    }
+  }
+
+  private static final Logger LOGGER = Logger.getLogger(ChangeFeed.class.getName());
+
+  // "changes", the key of the advisory lock held while numbering
+  private static final long SEQUENCER_LOCK = 0x6368616e676573L;
+
+  // positions continue from the highest one, so they have no gaps until events are purged
+  private static final String NUMBER_BATCH =
+      "update change_event c set position = n.position"
+          + " from (select id,"
+          + " (select coalesce(max(position), 0) from change_event)"
+          + " + row_number() over (order by recordedAt, id) as position"
+          + " from change_event where position is null order by recordedAt, id limit ?1) n"
+          + " where c.id = n.id";
+
+  private static final String READ =
+      "select position, entityType, entityKey, type, recordedAt, payload from change_event"
+          + " where position > $1 order by position limit $2";
+
+  @ConfigProperty(name = "changes.batch-size", defaultValue = "1000")
+  int batchSize;
+
+  @ConfigProperty(name = "changes.retention", defaultValue = "7d")
+  Duration retention;
+
+  @Inject PgPool client;
+
+  private final ReentrantLock sequencing = new ReentrantLock();
+  private final AtomicBoolean sequencingRequested = new AtomicBoolean();
+
+  // the highest position numbered so far, readers waiting for a higher one are in waiters
+  private volatile long latestPosition;
+  private final Queue<CompletableFuture<Void>> waiters = new ConcurrentLinkedQueue<>();
+
+  /** Numbers what was committed since the last run soon, without waiting for the schedule. */
+  public void requestSequencing() {
+    // requests arriving while one is pending are covered by it
+    if (sequencingRequested.compareAndSet(false, true)) {
+      Infrastructure.getDefaultWorkerPool()
+          .execute(
+              () -> {
+                sequencingRequested.set(false);
+                try {
+                  sequencePending();
+                } catch (RuntimeException e) {
+                  LOGGER.warnf("Failed to number change events, retrying on schedule: %s", e);
+                }
+              });
+    }
+  }
+
+  // also picks up the events numbered by other instances for the readers of this one
+  @Scheduled(
+      every = "${changes.sequence-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void sequencePending() {
+    sequencing.lock();
+    try {
+      long latest;
+      int numbered;
+      do {
+        long[] result = QuarkusTransaction.requiringNew().call(this::numberBatch);
+        numbered = (int) result[0];
+        latest = result[1];
+      } while (numbered == batchSize);
+      advanceTo(latest);
+    } finally {
+      sequencing.unlock();
+    }
+  }
+
+  /** Numbers the next batch, returning how many events it numbered and the highest position. */
+  private long[] numberBatch() {
+    var entityManager = ChangeEvent.getEntityManager();
+    entityManager
+        .createNativeQuery("select 1 from pg_advisory_xact_lock(?1)")
+        .setParameter(1, SEQUENCER_LOCK)
+        .getSingleResult();
+    int numbered =
+        entityManager
+            .createNativeQuery(NUMBER_BATCH)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedEntityClass(ChangeEvent.class)
+            .setParameter(1, batchSize)
+            .executeUpdate();
+    Long latest =
+        entityManager
+            .createQuery("select max(e.position) from ChangeEvent e", Long.class)
+            .getSingleResult();
+    return new long[] {numbered, latest == null ? 0 : latest};
+  }
+
+  private void advanceTo(long position) {
+    if (position <= latestPosition) {
+      return;
+    }
+    latestPosition = position;
+    CompletableFuture<Void> waiter;
+    while ((waiter = waiters.poll()) != null) {
+      waiter.complete(null);
+    }
+  }
+
+  /**
+   * Up to {@code limit} changes after the position, in order. When there is none yet, waits up to
+   * {@code wait} for one to be numbered and returns what is there then, possibly nothing. Fails
+   * with 410 when changes right after the position were already purged.
+   */
+  public Uni<List<Change>> poll(long after, int limit, Duration wait) {
+    return read(after, limit)
+        .chain(
+            changes ->
+                changes.isEmpty() && wait.isPositive()
+                    ? awaitAfter(after, wait).chain(() -> read(after, limit))
+                    : Uni.createFrom().item(changes));
+  }
+
+  private Uni<List<Change>> read(long after, int limit) {
+    return client
+        .preparedQuery(READ)
+        .execute(Tuple.of(after, limit))
+        .map(
+            rows -> {
+              List<Change> changes = toChanges(rows);
+              // positions have no gaps, except where events were purged; a reader starting from
+              // the beginning gets what is retained
+              if (after > 0 && !changes.isEmpty() && changes.get(0).position > after + 1) {
+                throw new RequestRejectedException(
+                    "Changes after position "
+                        + after
+                        + " are no longer retained, read the full list again and continue from"
+                        + " position "
+                        + (changes.get(0).position - 1),
+                    410);
+              }
+              return changes;
+            });
+  }
+
+  private Uni<Void> awaitAfter(long position, Duration timeout) {
+    if (latestPosition > position) {
+      return Uni.createFrom().voidItem();
+    }
+    CompletableFuture<Void> waiter = new CompletableFuture<>();
+    waiters.add(waiter);
+    // numbered between the check above and joining the waiters
+    if (latestPosition > position) {
+      waiter.complete(null);
+    }
+    return Uni.createFrom()
+        .completionStage(waiter)
+        .ifNoItem()
+        .after(timeout)
+        .recoverWithItem(() -> null)
+        .onTermination()
+        .invoke(() -> waiters.remove(waiter));
+  }
+
+  private static List<Change> toChanges(RowSet<Row> rows) {
+    List<Change> changes = new ArrayList<>(rows.size());
+    for (Row row : rows) {
+      changes.add(
+          new Change(
+              row.getLong(0),
+              row.getString(1),
+              row.getString(2),
+              row.getString(3),
+              row.getLocalDateTime(4),
+              row.getString(5)));
+    }
+    return changes;
+  }
+
+  /** Deletes numbered events older than the retention, always keeping the latest one. */
+  @Scheduled(
+      every = "${changes.purge-interval:1h}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void purgeExpired() {
+    LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+    long purged =
+        QuarkusTransaction.requiringNew()
+            .call(
+                () ->
+                    ChangeEvent.delete(
+                        "recordedAt < ?1"
+                            + " and position < (select max(e.position) from ChangeEvent e)",
+                        cutoff));
+    if (purged > 0) {
+      LOGGER.infof("Purged %d change events recorded before %s", purged, cutoff);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package com.fulfilment.application.monolith.changes;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.changes.ChangeFeed.Change;
+import com.fulfilment.application.monolith.common.NdjsonStream;
+import com.fulfilment.application.monolith.common.RequestRejectedException;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Serves the change feed, so consumers fetch what changed after the last position they saw instead
+ * of the full lists. Each change is a JSON object with its {@code position}, {@code entityType},
+ * {@code entityKey}, {@code type}, {@code recordedAt} and the entity as {@code data}.
+ */
+@Path("changes")
+@ApplicationScoped
+public class ChangeFeedResource {
+
+  static final int DEFAULT_PAGE_SIZE = 500;
+  static final int MAX_PAGE_SIZE = 1000;
+
+  // header of a long poll with the position to continue after
+  static final String POSITION_HEADER = "Change-Position";
+
+  @ConfigProperty(name = "changes.max-wait", defaultValue = "60s")
+  Duration maxWait;
+
+  // how long an event stream stays silent before it sends a comment, to detect gone clients
+  @ConfigProperty(name = "changes.keep-alive", defaultValue = "15s")
+  Duration keepAlive;
+
+  @Inject ChangeFeed changeFeed;
+  @Inject ObjectMapper objectMapper;
+
+  /**
+   * Long poll: the changes after {@code after}, one per line. When there is none yet, the response
+   * waits up to {@code wait} seconds for one.
+   */
+  @GET
+  @Produces(NdjsonStream.MEDIA_TYPE)
+  public Uni<Response> poll(
+      @QueryParam("after") Long after,
+      @QueryParam("limit") Integer limit,
+      @QueryParam("wait") Integer wait) {
+    long position = position(after);
+    if (limit != null && limit < 1) {
+      throw new RequestRejectedException("Invalid page size: " + limit, 400);
+    }
+    if (wait != null && wait < 0) {
+      throw new RequestRejectedException("Invalid wait: " + wait, 400);
+    }
+    int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+    Duration timeout = wait == null ? Duration.ZERO : Duration.ofSeconds(wait);
+    if (timeout.compareTo(maxWait) > 0) {
+      timeout = maxWait;
+    }
+    return changeFeed
+        .poll(position, pageSize, timeout)
+        .map(
+            changes -> {
+              StringBuilder body = new StringBuilder();
+              for (Change change : changes) {
+                body.append(toJson(change)).append('\n');
+              }
+              long next = changes.isEmpty() ? position : changes.get(changes.size() - 1).position;
+              return Response.ok(body.toString(), NdjsonStream.MEDIA_TYPE + ";charset=UTF-8")
+                  .header(POSITION_HEADER, next)
+                  .build();
+            });
+  }
+
+  /**
+   * Server-sent events of the changes after {@code after}, or after the {@code Last-Event-ID} a
+   * reconnecting client sends. Each event has the position as its id and the change as its data.
+   */
+  @GET
+  @Path("events")
+  @Produces(MediaType.SERVER_SENT_EVENTS)
+  public Multi<OutboundSseEvent> events(
+      @QueryParam("after") Long after,
+      @HeaderParam("Last-Event-ID") Long lastEventId,
+      @Context Sse sse) {
+    AtomicLong position = new AtomicLong(position(lastEventId != null ? lastEventId : after));
+    return Multi.createBy()
+        .repeating()
+        .uni(() -> changeFeed.poll(position.get(), MAX_PAGE_SIZE, keepAlive))
+        .indefinitely()
+        .onItem()
+        .transformToIterable(
+            changes -> {
+              if (changes.isEmpty()) {
+                return List.of(sse.newEventBuilder().comment("keep-alive").build());
+              }
+              List<OutboundSseEvent> events = new ArrayList<>(changes.size());
+              for (Change change : changes) {
+                events.add(
+                    sse.newEventBuilder()
+                        .id(Long.toString(change.position))
+                        .data(String.class, toJson(change))
+                        .build());
+              }
+              position.set(changes.get(changes.size() - 1).position);
+              return events;
+            });
+  }
+
+  private static long position(Long after) {
+    if (after == null) {
+      return 0;
+    }
+    if (after < 0) {
+      throw new RequestRejectedException("Invalid position: " + after, 400);
+    }
+    return after;
+  }
+
+  private String toJson(Change change) {
+    StringWriter json = new StringWriter();
+    try (JsonGenerator generator = objectMapper.createGenerator(json)) {
+      generator.writeStartObject();
+      generator.writeNumberField("position", change.position);
+      generator.writeStringField("entityType", change.entityType);
+      generator.writeStringField("entityKey", change.entityKey);
+      generator.writeStringField("type", change.type);
+      generator.writeObjectField("recordedAt", change.recordedAt);
+      generator.writeFieldName("data");
+      // stored as JSON already, written as is
+      generator.writeRawValue(change.payload == null ? "null" : change.payload);
+      generator.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return json.toString();
+  }
+}
@@ -0,0 +1,123 @@
+package com.fulfilment.application.monolith.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.changes.ChangeEvent.EntityType;
+import com.fulfilment.application.monolith.changes.ChangeEvent.Type;
+import com.fulfilment.application.monolith.products.ProductResource.ProductCreatedEvent;
+import com.fulfilment.application.monolith.products.ProductResource.ProductDeletedEvent;
+import com.fulfilment.application.monolith.products.ProductResource.ProductUpdatedEvent;
+import com.fulfilment.application.monolith.stores.StoreResource.StoreCreatedEvent;
+import com.fulfilment.application.monolith.stores.StoreResource.StoreDeletedEvent;
+import com.fulfilment.application.monolith.stores.StoreResource.StoreUpdatedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import java.io.UncheckedIOException;
+
+/**
+ * Records the change events of warehouses, stores and products in the transaction making the
+ * change, so the feed has exactly the changes that were committed. Once the transaction commits,
+ * the {@link ChangeFeed} is asked to number them right away rather than on its next run.
+ */
+@ApplicationScoped
+public class ChangeRecorder {
+
+  private static final String INSERT =
+      "insert into change_event (id, entityType, entityKey, type, payload)"
+          + " values (nextval('change_event_seq'), $1, $2, $3, $4)";
+
+  // marks a transaction whose commit already wakes up the feed
+  private static final Object WAKE_ON_COMMIT = new Object();
+
+  @Inject ObjectMapper objectMapper;
+  @Inject ChangeFeed changeFeed;
+  @Inject TransactionSynchronizationRegistry transactions;
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void onWarehouseChanged(@Observes WarehouseChangedEvent event) {
+    record(
+        EntityType.WAREHOUSE,
+        event.warehouse.businessUnitCode,
+        Type.valueOf(event.type.name()),
+        event.warehouse);
+  }
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void onStoreCreated(@Observes StoreCreatedEvent event) {
+    record(EntityType.STORE, String.valueOf(event.store.id), Type.CREATED, event.store);
+  }
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void onStoreUpdated(@Observes StoreUpdatedEvent event) {
+    record(EntityType.STORE, String.valueOf(event.store.id), Type.UPDATED, event.store);
+  }
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void onStoreDeleted(@Observes StoreDeletedEvent event) {
+    record(EntityType.STORE, String.valueOf(event.store.id), Type.DELETED, event.store);
+  }
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void onProductCreated(@Observes ProductCreatedEvent event) {
+    record(EntityType.PRODUCT, String.valueOf(event.product.id), Type.CREATED, event.product);
+  }
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void onProductUpdated(@Observes ProductUpdatedEvent event) {
+    record(EntityType.PRODUCT, String.valueOf(event.product.id), Type.UPDATED, event.product);
+  }
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void onProductDeleted(@Observes ProductDeletedEvent event) {
+    record(EntityType.PRODUCT, String.valueOf(event.product.id), Type.DELETED, event.product);
+  }
+
+  /**
+   * Records a change made through the reactive client, which has no JTA transaction for the
+   * observers above. {@code client} must be the connection of the transaction making the change;
+   * call {@link ChangeFeed#requestSequencing} once it committed.
+   */
+  public Uni<Void> record(
+      SqlClient client, EntityType entityType, String entityKey, Type type, Object state) {
+    return client
+        .preparedQuery(INSERT)
+        .execute(Tuple.of(entityType.name(), entityKey, type.name(), toJson(state)))
+        .replaceWithVoid();
+  }
+
+  private void record(EntityType entityType, String entityKey, Type type, Object state) {
+    new ChangeEvent(entityType, entityKey, type, toJson(state)).persist();
+    if (transactions.getResource(WAKE_ON_COMMIT) == null) {
+      transactions.putResource(WAKE_ON_COMMIT, Boolean.TRUE);
+      transactions.registerInterposedSynchronization(
+          new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+              if (status == Status.STATUS_COMMITTED) {
+                changeFeed.requestSequencing();
+              }
+            }
+          });
+    }
+  }
+
+  private String toJson(Object state) {
+    try {
+      return objectMapper.writeValueAsString(state);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/** Read-only view of the second-level cache regions, used to size them against real traffic. */
+@Path("cache")
+@ApplicationScoped
+@Produces("application/json")
+public class CacheRegionResource {
+
+  static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+  public static class RegionStatistics {
+    public String region;
+    public long elements;
+    public long hits;
+    public long misses;
+    public long puts;
+    public double hitRatio;
+  }
+
+  @Inject SessionFactory sessionFactory;
+
+  @GET
+  @Path("regions")
+  public List<RegionStatistics> regions() {
+    Statistics statistics = sessionFactory.getStatistics();
+    List<String> names =
+        new ArrayList<>(Arrays.asList(statistics.getSecondLevelCacheRegionNames()));
+    if (!names.contains(QUERY_RESULTS_REGION)) {
+      names.add(QUERY_RESULTS_REGION);
+    }
+    names.sort(null);
+
+    List<RegionStatistics> regions = new ArrayList<>(names.size());
+    for (String name : names) {
+      CacheRegionStatistics region =
+          QUERY_RESULTS_REGION.equals(name)
+              ? statistics.getQueryRegionStatistics(name)
+              : statistics.getDomainDataRegionStatistics(name);
+      if (region != null) {
+        regions.add(toRegionStatistics(name, region));
+      }
+    }
+    return regions;
+  }
+
+  static RegionStatistics toRegionStatistics(String name, CacheRegionStatistics region) {
+    RegionStatistics result = new RegionStatistics();
+    result.region = name;
+    result.elements = region.getElementCountInMemory();
+    result.hits = region.getHitCount();
+    result.misses = region.getMissCount();
+    result.puts = region.getPutCount();
+    long requests = result.hits + result.misses;
+    result.hitRatio = requests == 0 ? 0.0 : (double) result.hits / requests;
+    return result;
+  }
+}
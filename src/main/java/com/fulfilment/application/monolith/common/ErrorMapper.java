@@ -0,0 +1,72 @@
+package com.fulfilment.application.monolith.common;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Turns every failure into the JSON error body of the API. Client errors are expected under load,
+ * so they are cheap: the body is a prefix built once per exception type and status followed by the
+ * escaped message, and only one in {@code errors.client-log-every} is logged, without a stack
+ * trace. Server errors are always logged with their stack trace.
+ */
+@Provider
+public class ErrorMapper implements ExceptionMapper<Exception> {
+
+  private static final Logger LOGGER = Logger.getLogger(ErrorMapper.class.getName());
+
+  private record BodyKind(Class<?> type, int code) {}
+
+  @ConfigProperty(name = "errors.client-log-every", defaultValue = "100")
+  long clientLogEvery;
+
+  private final Map<BodyKind, String> bodyPrefixes = new ConcurrentHashMap<>();
+  private final AtomicLong clientErrors = new AtomicLong();
+
+  @Override
+  public Response toResponse(Exception exception) {
+    int code = 500;
+    if (exception instanceof WebApplicationException e) {
+      code = e.getResponse().getStatus();
+    }
+
+    if (code >= 500) {
+      LOGGER.error("Failed to handle request", exception);
+    } else {
+      long count = clientErrors.incrementAndGet();
+      if ((count - 1) % Math.max(clientLogEvery, 1) == 0) {
+        LOGGER.warnf(
+            "Rejected request with %d, %d client errors so far: %s",
+            code, count, exception.getMessage());
+      }
+    }
+
+    return Response.status(code)
+        .type(MediaType.APPLICATION_JSON_TYPE)
+        .entity(body(exception, code))
+        .build();
+  }
+
+  String body(Exception exception, int code) {
+    String prefix =
+        bodyPrefixes.computeIfAbsent(
+            new BodyKind(exception.getClass(), code),
+            kind -> "{\"exceptionType\":\"" + kind.type().getName() + "\",\"code\":" + kind.code());
+    String message = exception.getMessage();
+    if (message == null) {
+      return prefix + "}";
+    }
+    StringBuilder body = new StringBuilder(prefix.length() + message.length() + 12);
+    body.append(prefix).append(",\"error\":\"");
+    JsonStringEncoder.getInstance().quoteAsString(message, body);
+    return body.append("\"}").toString();
+  }
+}
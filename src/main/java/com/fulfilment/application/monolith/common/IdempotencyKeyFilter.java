@@ -0,0 +1,120 @@
+package com.fulfilment.application.monolith.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Answers a retried {@link Idempotent} write that carries an {@code Idempotency-Key} with the
+ * stored response of its first successful attempt, without running the endpoint again. A failed
+ * attempt gives the key up, so its retry runs as a new request.
+ */
+@Provider
+public class IdempotencyKeyFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  public static final String HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+  static final int MAX_KEY_LENGTH = 255;
+
+  private static final String CLAIMED_KEY = IdempotencyKeyFilter.class.getName() + ".key";
+
+  @Context ResourceInfo resourceInfo;
+  @Inject IdempotencyKeys keys;
+  @Inject ObjectMapper objectMapper;
+  @Inject MeterRegistry registry;
+
+  private Counter executed;
+  private Counter replayed;
+  private Counter rejected;
+
+  @PostConstruct
+  void registerMetrics() {
+    executed = registry.counter("idempotency.requests", "outcome", "executed");
+    replayed = registry.counter("idempotency.requests", "outcome", "replayed");
+    rejected = registry.counter("idempotency.requests", "outcome", "rejected");
+  }
+
+  @Override
+  public void filter(ContainerRequestContext request) throws IOException {
+    String key = request.getHeaderString(HEADER);
+    if (key == null || !resourceInfo.getResourceMethod().isAnnotationPresent(Idempotent.class)) {
+      return;
+    }
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      throw new RequestRejectedException("Invalid " + HEADER + ": " + key, 400);
+    }
+
+    // the body is hashed and handed on, a key may only be replayed for the same request
+    byte[] body = request.getEntityStream().readAllBytes();
+    request.setEntityStream(new ByteArrayInputStream(body));
+    String fingerprint =
+        request.getMethod() + " " + request.getUriInfo().getPath() + " " + sha256(body);
+
+    IdempotencyRecord record = keys.claim(key, fingerprint);
+    if (record == null) {
+      request.setProperty(CLAIMED_KEY, key);
+      executed.increment();
+      return;
+    }
+    if (!record.fingerprint.equals(fingerprint)) {
+      rejected.increment();
+      throw new RequestRejectedException(
+          HEADER + " " + key + " was already used for a different request", 422);
+    }
+    if (record.status == null) {
+      rejected.increment();
+      throw new RequestRejectedException(
+          "A request with " + HEADER + " " + key + " is still in progress", 409);
+    }
+    replayed.increment();
+    request.abortWith(
+        Response.status(record.status)
+            .type(record.contentType)
+            .entity(record.body)
+            .header(REPLAYED_HEADER, true)
+            .build());
+  }
+
+  @Override
+  public void filter(ContainerRequestContext request, ContainerResponseContext response)
+      throws IOException {
+    String key = (String) request.getProperty(CLAIMED_KEY);
+    if (key == null) {
+      return;
+    }
+    if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+      keys.release(key);
+      return;
+    }
+    MediaType type = response.getMediaType();
+    keys.complete(
+        key,
+        response.getStatus(),
+        type == null ? MediaType.APPLICATION_JSON : type.toString(),
+        response.hasEntity() ? objectMapper.writeValueAsString(response.getEntity()) : null);
+  }
+
+  private static String sha256(byte[] body) {
+    try {
+      return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(body));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.fulfilment.application.monolith.common;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Claims and records {@code Idempotency-Key}s in the database. Records are always read from the
+ * database, never from a cache local to the instance, since the request holding a key may run on
+ * another instance; they are purged once they are older than {@code idempotency.ttl}.
+ */
+@ApplicationScoped
+public class IdempotencyKeys {
+
+  private static final Logger LOGGER = Logger.getLogger(IdempotencyKeys.class.getName());
+
+  @ConfigProperty(name = "idempotency.ttl", defaultValue = "24h")
+  Duration ttl;
+
+  // a claim whose request never completed, e.g. because the instance stopped, is given up after
+  @ConfigProperty(name = "idempotency.claim-timeout", defaultValue = "1m")
+  Duration claimTimeout;
+
+  /**
+   * Claims the key for a request with the fingerprint. Returns null when the caller now holds the
+   * key and must run the request, otherwise the record of the request that holds it, which has no
+   * status yet while that request is still running.
+   */
+  public IdempotencyRecord claim(String key, String fingerprint) {
+    try {
+      return QuarkusTransaction.requiringNew().call(() -> tryClaim(key, fingerprint));
+    } catch (PersistenceException e) {
+      // claimed concurrently, the insert or takeover of the other request committed first
+      IdempotencyRecord record =
+          QuarkusTransaction.requiringNew().call(() -> IdempotencyRecord.findById(key));
+      if (record == null) {
+        throw e;
+      }
+      return record;
+    }
+  }
+
+  private IdempotencyRecord tryClaim(String key, String fingerprint) {
+    LocalDateTime now = LocalDateTime.now();
+    IdempotencyRecord record = IdempotencyRecord.findById(key);
+    if (record == null) {
+      new IdempotencyRecord(key, fingerprint, now).persistAndFlush();
+      return null;
+    }
+    boolean expired = record.createdAt.isBefore(now.minus(ttl));
+    boolean abandoned = record.status == null && record.createdAt.isBefore(now.minus(claimTimeout));
+    if (expired || abandoned) {
+      // only takes the key over from the claim that was read, a concurrent takeover moved createdAt
+      int updated =
+          IdempotencyRecord.update(
+              "fingerprint = ?1, createdAt = ?2, status = null, contentType = null, body = null"
+                  + " where idempotencyKey = ?3 and createdAt = ?4",
+              fingerprint,
+              now,
+              key,
+              record.createdAt);
+      if (updated == 0) {
+        throw new OptimisticLockException(
+            "Idempotency key " + key + " was taken over concurrently");
+      }
+      return null;
+    }
+    return record;
+  }
+
+  /** Stores the response of the request holding the key, later requests are answered with it. */
+  public void complete(String key, int status, String contentType, String body) {
+    QuarkusTransaction.requiringNew()
+        .run(
+            () -> {
+              IdempotencyRecord record = IdempotencyRecord.findById(key);
+              if (record == null) {
+                // purged, or taken over and released while the request ran; it is done regardless
+                LOGGER.warnf("Idempotency key %s is gone, its response is not stored", key);
+                return;
+              }
+              record.status = status;
+              record.contentType = contentType;
+              record.body = body;
+            });
+  }
+
+  /** Gives the key up after its request failed, so a retry runs the request again. */
+  public void release(String key) {
+    QuarkusTransaction.requiringNew().run(() -> IdempotencyRecord.deleteById(key));
+  }
+
+  @Scheduled(
+      every = "${idempotency.purge-interval:10m}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  @Transactional
+  void purgeExpired() {
+    long purged = IdempotencyRecord.delete("createdAt < ?1", LocalDateTime.now().minus(ttl));
+    if (purged > 0) {
+      LOGGER.debugf("Purged %d expired idempotency keys", purged);
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package com.fulfilment.application.monolith.common;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/** The response of a write sent with an {@code Idempotency-Key}, kept to answer its retries. */
+@Entity
+@Table(
+    name = "idempotency_key",
+    indexes = @Index(name = "idempotency_key_created_idx", columnList = "createdAt"))
+public class IdempotencyRecord extends PanacheEntityBase {
+
+  @Id
+  @Column(length = IdempotencyKeyFilter.MAX_KEY_LENGTH)
+  public String idempotencyKey;
+
+  // method, path and a hash of the body, a key is only replayed for the request it was used with
+  public String fingerprint;
+
+  public LocalDateTime createdAt;
+
+  // null while the first attempt is still running
+  public Integer status;
+
+  public String contentType;
+
+  @Column(columnDefinition = "text")
+  public String body;
+
+  public IdempotencyRecord() {}
+
+  public IdempotencyRecord(String idempotencyKey, String fingerprint, LocalDateTime createdAt) {
+    this.idempotencyKey = idempotencyKey;
+    this.fingerprint = fingerprint;
+    this.createdAt = createdAt;
+  }
+}
@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.common;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a write endpoint whose requests may carry an {@code Idempotency-Key}, see {@link
+ * IdempotencyKeyFilter}. Not a name binding: those are not picked up from the implementations of
+ * the generated API interfaces.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Idempotent {}
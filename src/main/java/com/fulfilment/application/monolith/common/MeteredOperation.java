@@ -0,0 +1,22 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Times every call of the annotated operation and counts its rejections by reason, see {@link
+ * MeteredOperationInterceptor}.
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface MeteredOperation {
+
+  /** Name of the operation, reported in the {@code operation} tag. */
+  @Nonbinding
+  String value();
+}
@@ -0,0 +1,59 @@
+package com.fulfilment.application.monolith.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Records {@code operation.duration} tagged with the operation, its outcome ({@code success},
+ * {@code rejected} or {@code error}) and the rule that rejected it, and counts rejections in {@code
+ * operation.rejections}. Operations returning a {@link Uni} are measured until it emits.
+ */
+@MeteredOperation("")
+@Interceptor
+@Priority(Interceptor.Priority.LIBRARY_BEFORE)
+public class MeteredOperationInterceptor {
+
+  static final String NO_REASON = "none";
+
+  @Inject MeterRegistry registry;
+
+  @AroundInvoke
+  Object meter(InvocationContext context) throws Exception {
+    String operation = context.getInterceptorBinding(MeteredOperation.class).value();
+    Timer.Sample sample = Timer.start(registry);
+    Object result;
+    try {
+      result = context.proceed();
+    } catch (Throwable e) {
+      record(operation, sample, e);
+      throw e;
+    }
+    if (result instanceof Uni<?> uni) {
+      // reactive operations only complete once the item or failure is emitted
+      return uni.onItemOrFailure().invoke((item, failure) -> record(operation, sample, failure));
+    }
+    record(operation, sample, null);
+    return result;
+  }
+
+  private void record(String operation, Timer.Sample sample, Throwable failure) {
+    String outcome = failure == null ? "success" : "error";
+    String reason = NO_REASON;
+    if (failure instanceof OperationRejectedException e) {
+      outcome = "rejected";
+      reason = e.reasonCode();
+      registry
+          .counter("operation.rejections", "operation", operation, "reason", reason)
+          .increment();
+    }
+    sample.stop(
+        registry.timer(
+            "operation.duration", "operation", operation, "outcome", outcome, "reason", reason));
+  }
+}
@@ -0,0 +1,40 @@
+package com.fulfilment.application.monolith.common;
+
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+import com.fulfilment.application.monolith.fulfilment.domain.models.AssignmentResult;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.warehouse.api.beans.StockAdjustment;
+import com.warehouse.api.beans.Warehouse;
+import com.warehouse.api.beans.WarehouseImportResult;
+import com.warehouse.api.beans.WarehouseReplacement;
+import com.warehouse.api.beans.WarehouseReplacementResult;
+import com.warehouse.api.beans.WarehouseVersion;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Classes the native image must keep reflective access to. Quarkus registers the entities and the
+ * types in endpoint signatures by itself, but not what is (de)serialised behind a {@code Response},
+ * an NDJSON stream, a replayed idempotent response or a change feed payload; the entities are
+ * listed too so that the registration does not hinge on how an endpoint happens to be declared.
+ */
+@RegisterForReflection(
+    targets = {
+      DbWarehouse.class,
+      Store.class,
+      Product.class,
+      Assignment.class,
+      AssignmentResult.class,
+      Warehouse.class,
+      WarehouseVersion.class,
+      StockAdjustment.class,
+      WarehouseImportResult.class,
+      WarehouseReplacement.class,
+      WarehouseReplacementResult.class,
+      com.fulfilment.application.monolith.warehouses.domain.models.Warehouse.class
+    })
+final class NativeReflection {
+
+  private NativeReflection() {}
+}
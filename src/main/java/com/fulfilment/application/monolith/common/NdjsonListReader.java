@@ -0,0 +1,51 @@
+package com.fulfilment.application.monolith.common;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/** Reads a newline delimited JSON request body into a {@code List}, one element per line. */
+@Provider
+@Consumes(NdjsonStream.MEDIA_TYPE)
+public class NdjsonListReader implements MessageBodyReader<List<?>> {
+
+  @Inject ObjectMapper objectMapper;
+
+  @Override
+  public boolean isReadable(
+      Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return List.class.isAssignableFrom(type) && genericType instanceof ParameterizedType;
+  }
+
+  @Override
+  public List<?> readFrom(
+      Class<List<?>> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType,
+      MultivaluedMap<String, String> httpHeaders,
+      InputStream entityStream)
+      throws IOException {
+    JavaType elementType =
+        objectMapper
+            .getTypeFactory()
+            .constructType(((ParameterizedType) genericType).getActualTypeArguments()[0]);
+    try (MappingIterator<?> lines = objectMapper.readerFor(elementType).readValues(entityStream)) {
+      return lines.readAll();
+    } catch (IOException e) {
+      throw new RequestRejectedException("Malformed NDJSON request body: " + e.getMessage(), 400);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.fulfilment.application.monolith.common;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+/**
+ * Writes the rows of a query as newline delimited JSON while they are scrolled from the database,
+ * so the whole result set is never held in memory.
+ */
+public final class NdjsonStream {
+
+  public static final String MEDIA_TYPE = "application/x-ndjson";
+
+  private static final int FETCH_SIZE = 500;
+
+  // a full export can take much longer than the default transaction timeout
+  private static final int TIMEOUT_SECONDS = 600;
+
+  private NdjsonStream() {}
+
+  public static <E> Response of(ObjectMapper objectMapper, String query, Class<E> type) {
+    return of(objectMapper, query, type, Function.identity());
+  }
+
+  public static <E, T> Response of(
+      ObjectMapper objectMapper, String query, Class<E> type, Function<E, T> mapper) {
+    // flushing after every row would turn each row into its own chunk
+    ObjectWriter writer =
+        objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    StreamingOutput output =
+        out ->
+            QuarkusTransaction.requiringNew()
+                .timeout(TIMEOUT_SECONDS)
+                .run(
+                    () -> {
+                      Session session = Panache.getEntityManager().unwrap(Session.class);
+                      try (ScrollableResults<E> rows =
+                              session
+                                  .createSelectionQuery(query, type)
+                                  .setReadOnly(true)
+                                  .setFetchSize(FETCH_SIZE)
+                                  .scroll(ScrollMode.FORWARD_ONLY);
+                          JsonGenerator generator = objectMapper.createGenerator(out)) {
+                        // rows are separated by the newline written below, not by a space
+                        generator.setRootValueSeparator(null);
+                        while (rows.next()) {
+                          E row = rows.get();
+                          writer.writeValue(generator, mapper.apply(row));
+                          generator.writeRaw('\n');
+                          session.detach(row);
+                        }
+                      } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                      }
+                    });
+    return Response.ok(output, MEDIA_TYPE + ";charset=UTF-8").build();
+  }
+}
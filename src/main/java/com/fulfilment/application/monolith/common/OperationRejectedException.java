@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.common;
+
+/** An operation refused by one of the business rules, reported with the status of that rule. */
+public abstract class OperationRejectedException extends RequestRejectedException {
+
+  protected OperationRejectedException(String message, int status) {
+    super(message, status);
+  }
+
+  /** Name of the rule that refused the operation, used to tag metrics. */
+  public abstract String reasonCode();
+}
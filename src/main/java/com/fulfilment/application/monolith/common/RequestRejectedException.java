@@ -0,0 +1,19 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.ws.rs.WebApplicationException;
+
+/**
+ * A request refused with a client error status, such as a missing field or an unknown id. These are
+ * expected outcomes rather than faults, so no stack trace is captured for them.
+ */
+public class RequestRejectedException extends WebApplicationException {
+
+  public RequestRejectedException(String message, int status) {
+    super(message, status);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
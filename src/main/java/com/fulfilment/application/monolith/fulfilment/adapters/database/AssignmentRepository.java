@@ -0,0 +1,315 @@
+package com.fulfilment.application.monolith.fulfilment.adapters.database;
+
+import com.fulfilment.application.monolith.fulfilment.adapters.database.DbFulfilmentCounter.Scope;
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException.Reason;
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+import com.fulfilment.application.monolith.fulfilment.domain.models.FulfilmentLimits;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.PessimisticLockException;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.hibernate.exception.LockAcquisitionException;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Records assignments together with the counters behind the fulfilment limits. An assignment first
+ * takes the rows of all its counters with a single upsert, creating the missing ones at zero, so
+ * two concurrent assignments serialise on the counter rows instead of a table lock and can never
+ * both take the last slot. The limits are then checked against the locked totals before anything is
+ * written, so a refused assignment has nothing to undo.
+ */
+@ApplicationScoped
+@Timed(value = "fulfilment.store", description = "Fulfilment persistence calls")
+public class AssignmentRepository
+    implements AssignmentStore, PanacheRepositoryBase<DbAssignment, DbAssignment.Key> {
+
+  // keeps IN lists well below the bind parameter limit of the driver
+  private static final int IN_CLAUSE_CHUNK = 1000;
+
+  private static final String LOCK_COUNTERS =
+      "insert into fulfilment_counter (scope, counterKey, total)"
+          + " select scope, counterKey, 0"
+          + " from unnest(cast(?1 as varchar[]), cast(?2 as varchar[])) with ordinality"
+          + " as c (scope, counterKey, ordinal) order by ordinal"
+          + " on conflict (scope, counterKey) do update set total = fulfilment_counter.total"
+          + " returning scope, total";
+
+  private static final String INSERT_ASSIGNMENT =
+      "insert into fulfilment_assignment (productId, storeId, businessUnitCode, createdAt)"
+          + " values (?1, ?2, ?3, ?4) on conflict do nothing";
+
+  private static final String INCREMENT =
+      "update fulfilment_counter c set total = c.total + 1"
+          + " from unnest(cast(?1 as varchar[]), cast(?2 as varchar[])) as i (scope, counterKey)"
+          + " where c.scope = i.scope and c.counterKey = i.counterKey";
+
+  private static final String DECREMENT =
+      "update fulfilment_counter set total = total - 1 where scope = ?1 and counterKey = ?2"
+          + " returning total";
+
+  @Override
+  @Transactional
+  public Reason assign(Assignment assignment, FulfilmentLimits limits) {
+    // the counters of the assignment, locked in the order a release takes them
+    Map<Scope, String> counters = new LinkedHashMap<>();
+    counters.put(Scope.PRODUCT_STORE, assignment.productId + ":" + assignment.storeId);
+    counters.put(Scope.STORE_WAREHOUSE, assignment.storeId + ":" + assignment.businessUnitCode);
+    counters.put(Scope.STORE, String.valueOf(assignment.storeId));
+    counters.put(Scope.WAREHOUSE_PRODUCT, assignment.businessUnitCode + ":" + assignment.productId);
+    counters.put(Scope.WAREHOUSE, assignment.businessUnitCode);
+
+    try {
+      Map<Scope, Integer> totals = lockCounters(counters);
+      // first assignment linking the store to this warehouse, or the product to it
+      boolean newStoreWarehouse = totals.get(Scope.STORE_WAREHOUSE) == 0;
+      boolean newWarehouseProduct = totals.get(Scope.WAREHOUSE_PRODUCT) == 0;
+      if (isAssigned(assignment)) {
+        return Reason.ALREADY_ASSIGNED;
+      }
+      if (totals.get(Scope.PRODUCT_STORE) >= limits.maxWarehousesPerProductPerStore) {
+        return Reason.PRODUCT_STORE_WAREHOUSE_LIMIT;
+      }
+      if (newStoreWarehouse && totals.get(Scope.STORE) >= limits.maxWarehousesPerStore) {
+        return Reason.STORE_WAREHOUSE_LIMIT;
+      }
+      if (newWarehouseProduct && totals.get(Scope.WAREHOUSE) >= limits.maxProductsPerWarehouse) {
+        return Reason.WAREHOUSE_PRODUCT_LIMIT;
+      }
+
+      insertAssignment(assignment);
+      // the store counts its warehouses and the warehouse its products, not their assignments
+      if (!newStoreWarehouse) {
+        counters.remove(Scope.STORE);
+      }
+      if (!newWarehouseProduct) {
+        counters.remove(Scope.WAREHOUSE);
+      }
+      increment(counters);
+      return null;
+    } catch (PersistenceException e) {
+      throw translate(e);
+    }
+  }
+
+  @Override
+  @Transactional
+  public boolean unassign(Assignment assignment) {
+    try {
+      int deleted =
+          synchronizedQuery(
+                  "delete from fulfilment_assignment where productId = ?1 and storeId = ?2"
+                      + " and businessUnitCode = ?3")
+              .setParameter(1, assignment.productId)
+              .setParameter(2, assignment.storeId)
+              .setParameter(3, assignment.businessUnitCode)
+              .executeUpdate();
+      if (deleted == 0) {
+        return false;
+      }
+      releaseCounters(assignment);
+      return true;
+    } catch (PersistenceException e) {
+      throw translate(e);
+    }
+  }
+
+  @Override
+  @Transactional
+  public int releaseWarehouse(String businessUnitCode) {
+    return release("businessUnitCode", businessUnitCode);
+  }
+
+  @Override
+  @Transactional
+  public int releaseStore(Long storeId) {
+    return release("storeId", storeId);
+  }
+
+  @Override
+  @Transactional
+  public int releaseProduct(Long productId) {
+    return release("productId", productId);
+  }
+
+  private int release(String column, Object value) {
+    try {
+      List<?> rows =
+          synchronizedQuery(
+                  "delete from fulfilment_assignment where "
+                      + column
+                      + " = ?1 returning productId, storeId, businessUnitCode")
+              .setParameter(1, value)
+              .getResultList();
+      // counters taken in the same order by every release, like the assignments of a batch
+      List<Assignment> released = new ArrayList<>(rows.size());
+      for (Object result : rows) {
+        Object[] row = (Object[]) result;
+        released.add(
+            new Assignment(
+                ((Number) row[0]).longValue(), ((Number) row[1]).longValue(), (String) row[2]));
+      }
+      released.sort(
+          Comparator.comparing((Assignment a) -> a.productId)
+              .thenComparing(a -> a.storeId)
+              .thenComparing(a -> a.businessUnitCode));
+      for (Assignment assignment : released) {
+        releaseCounters(assignment);
+      }
+      return released.size();
+    } catch (PersistenceException e) {
+      throw translate(e);
+    }
+  }
+
+  private void releaseCounters(Assignment assignment) {
+    decrement(Scope.PRODUCT_STORE, assignment.productId + ":" + assignment.storeId);
+    if (decrement(Scope.STORE_WAREHOUSE, assignment.storeId + ":" + assignment.businessUnitCode)
+        == 0) {
+      decrement(Scope.STORE, String.valueOf(assignment.storeId));
+    }
+    if (decrement(Scope.WAREHOUSE_PRODUCT, assignment.businessUnitCode + ":" + assignment.productId)
+        == 0) {
+      decrement(Scope.WAREHOUSE, assignment.businessUnitCode);
+    }
+  }
+
+  @Override
+  public List<Assignment> findByStore(Long storeId) {
+    return find("storeId", Sort.by("productId").and("businessUnitCode"), storeId).stream()
+        .map(DbAssignment::toAssignment)
+        .toList();
+  }
+
+  @Override
+  public Set<Long> findExistingProductIds(Collection<Long> productIds) {
+    return lockExisting("product", "id", productIds, Long.class);
+  }
+
+  @Override
+  public Set<Long> findExistingStoreIds(Collection<Long> storeIds) {
+    return lockExisting("store", "id", storeIds, Long.class);
+  }
+
+  @Override
+  public Set<String> findActiveBusinessUnitCodes(Collection<String> businessUnitCodes) {
+    return lockExisting("warehouse", "businessUnitCode", businessUnitCodes, String.class);
+  }
+
+  /**
+   * Which of the keys have a row, locking those rows until the transaction ends. A key share lock
+   * only conflicts with deleting the row, so an archive or delete racing the assignment either
+   * waits for it and then releases it, or commits first and the assignment finds the row gone,
+   * while stock adjustments and other updates of the row go through.
+   */
+  private <K extends Comparable<K>> Set<K> lockExisting(
+      String table, String column, Collection<K> keys, Class<K> type) {
+    // rows locked in the same order by every lookup
+    List<K> candidates = new ArrayList<>(new TreeSet<>(keys));
+    Set<K> existing = new HashSet<>();
+    for (int from = 0; from < candidates.size(); from += IN_CLAUSE_CHUNK) {
+      existing.addAll(
+          getEntityManager()
+              .createNativeQuery(
+                  "select "
+                      + column
+                      + " from "
+                      + table
+                      + " where "
+                      + column
+                      + " in (?1) order by "
+                      + column
+                      + " for key share",
+                  type)
+              .setParameter(
+                  1, candidates.subList(from, Math.min(from + IN_CLAUSE_CHUNK, candidates.size())))
+              .getResultList());
+    }
+    return existing;
+  }
+
+  private Map<Scope, Integer> lockCounters(Map<Scope, String> counters) {
+    Map<Scope, Integer> totals = new EnumMap<>(Scope.class);
+    for (Object result :
+        synchronizedQuery(LOCK_COUNTERS)
+            .setParameter(1, counters.keySet().stream().map(Scope::name).toArray(String[]::new))
+            .setParameter(2, counters.values().toArray(String[]::new))
+            .getResultList()) {
+      Object[] row = (Object[]) result;
+      totals.put(Scope.valueOf((String) row[0]), ((Number) row[1]).intValue());
+    }
+    return totals;
+  }
+
+  private boolean isAssigned(Assignment assignment) {
+    return !getEntityManager()
+        .createNativeQuery(
+            "select 1 from fulfilment_assignment where productId = ?1 and storeId = ?2"
+                + " and businessUnitCode = ?3")
+        .setParameter(1, assignment.productId)
+        .setParameter(2, assignment.storeId)
+        .setParameter(3, assignment.businessUnitCode)
+        .getResultList()
+        .isEmpty();
+  }
+
+  private int insertAssignment(Assignment assignment) {
+    return synchronizedQuery(INSERT_ASSIGNMENT)
+        .setParameter(1, assignment.productId)
+        .setParameter(2, assignment.storeId)
+        .setParameter(3, assignment.businessUnitCode)
+        .setParameter(4, assignment.createdAt)
+        .executeUpdate();
+  }
+
+  private void increment(Map<Scope, String> counters) {
+    synchronizedQuery(INCREMENT)
+        .setParameter(1, counters.keySet().stream().map(Scope::name).toArray(String[]::new))
+        .setParameter(2, counters.values().toArray(String[]::new))
+        .executeUpdate();
+  }
+
+  private int decrement(Scope scope, String key) {
+    return ((Number)
+            synchronizedQuery(DECREMENT)
+                .setParameter(1, scope.name())
+                .setParameter(2, key)
+                .getSingleResult())
+        .intValue();
+  }
+
+  /**
+   * Native statement declared to touch only the fulfilment tables, otherwise Hibernate would evict
+   * every second-level cache region on each write.
+   */
+  private NativeQuery<?> synchronizedQuery(String sql) {
+    return getEntityManager()
+        .createNativeQuery(sql)
+        .unwrap(NativeQuery.class)
+        .addSynchronizedQuerySpace("fulfilment_assignment")
+        .addSynchronizedQuerySpace("fulfilment_counter");
+  }
+
+  private static RuntimeException translate(PersistenceException e) {
+    // deadlocks between batches locking the same counters in a different order
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof LockAcquisitionException || cause instanceof PessimisticLockException) {
+        return new ConcurrentAssignmentException(e);
+      }
+    }
+    return e;
+  }
+}
@@ -0,0 +1,52 @@
+package com.fulfilment.application.monolith.fulfilment.adapters.database;
+
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(
+    name = "fulfilment_assignment",
+    indexes = @Index(name = "fulfilment_assignment_store_idx", columnList = "storeId"))
+@IdClass(DbAssignment.Key.class)
+public class DbAssignment {
+
+  public static class Key implements Serializable {
+    public Long productId;
+    public Long storeId;
+    public String businessUnitCode;
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key key
+          && Objects.equals(productId, key.productId)
+          && Objects.equals(storeId, key.storeId)
+          && Objects.equals(businessUnitCode, key.businessUnitCode);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(productId, storeId, businessUnitCode);
+    }
+  }
+
+  @Id public Long productId;
+
+  @Id public Long storeId;
+
+  @Id public String businessUnitCode;
+
+  public LocalDateTime createdAt;
+
+  public Assignment toAssignment() {
+    var assignment = new Assignment(productId, storeId, businessUnitCode);
+    assignment.createdAt = createdAt;
+    return assignment;
+  }
+}
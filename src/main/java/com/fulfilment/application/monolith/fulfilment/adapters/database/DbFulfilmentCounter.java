@@ -0,0 +1,59 @@
+package com.fulfilment.application.monolith.fulfilment.adapters.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A running count behind one of the fulfilment limits, so a limit is checked by touching a single
+ * row instead of counting assignments. Only written through the statements of {@link
+ * AssignmentRepository}.
+ */
+@Entity
+@Table(name = "fulfilment_counter")
+@IdClass(DbFulfilmentCounter.Key.class)
+public class DbFulfilmentCounter {
+
+  public enum Scope {
+    // warehouses fulfilling a product for a store, keyed by productId:storeId
+    PRODUCT_STORE,
+    // distinct warehouses fulfilling a store, keyed by storeId
+    STORE,
+    // distinct products stored by a warehouse, keyed by businessUnitCode
+    WAREHOUSE,
+    // assignments linking a store to a warehouse, keyed by storeId:businessUnitCode
+    STORE_WAREHOUSE,
+    // assignments linking a warehouse to a product, keyed by businessUnitCode:productId
+    WAREHOUSE_PRODUCT
+  }
+
+  public static class Key implements Serializable {
+    public Scope scope;
+    public String counterKey;
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key key
+          && scope == key.scope
+          && Objects.equals(counterKey, key.counterKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(scope, counterKey);
+    }
+  }
+
+  @Id
+  @Enumerated(EnumType.STRING)
+  public Scope scope;
+
+  @Id public String counterKey;
+
+  public int total;
+}
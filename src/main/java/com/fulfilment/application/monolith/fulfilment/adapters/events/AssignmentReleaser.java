@@ -0,0 +1,53 @@
+package com.fulfilment.application.monolith.fulfilment.adapters.events;
+
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException;
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException.Reason;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore.ConcurrentAssignmentException;
+import com.fulfilment.application.monolith.products.ProductResource.ProductDeletedEvent;
+import com.fulfilment.application.monolith.stores.StoreResource.StoreDeletedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Transactional;
+import java.util.function.IntSupplier;
+
+/**
+ * Releases the assignments of archived warehouses and deleted stores and products, with what they
+ * counted against the limits, in the transaction removing them. A replaced warehouse keeps its
+ * business unit code and so its assignments.
+ */
+@ApplicationScoped
+public class AssignmentReleaser {
+
+  private final AssignmentStore assignmentStore;
+
+  public AssignmentReleaser(AssignmentStore assignmentStore) {
+    this.assignmentStore = assignmentStore;
+  }
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void onWarehouseChanged(@Observes WarehouseChangedEvent event) {
+    if (event.type == WarehouseChangedEvent.Type.ARCHIVED) {
+      release(() -> assignmentStore.releaseWarehouse(event.warehouse.businessUnitCode));
+    }
+  }
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void onStoreDeleted(@Observes StoreDeletedEvent event) {
+    release(() -> assignmentStore.releaseStore(event.store.id));
+  }
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void onProductDeleted(@Observes ProductDeletedEvent event) {
+    release(() -> assignmentStore.releaseProduct(event.product.id));
+  }
+
+  private static void release(IntSupplier release) {
+    try {
+      release.getAsInt();
+    } catch (ConcurrentAssignmentException e) {
+      throw new AssignmentRejectedException(Reason.CONCURRENT_UPDATE, e.getMessage());
+    }
+  }
+}
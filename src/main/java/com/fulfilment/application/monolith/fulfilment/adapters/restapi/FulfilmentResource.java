@@ -0,0 +1,71 @@
+package com.fulfilment.application.monolith.fulfilment.adapters.restapi;
+
+import com.fulfilment.application.monolith.common.NdjsonStream;
+import com.fulfilment.application.monolith.common.RequestRejectedException;
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+import com.fulfilment.application.monolith.fulfilment.domain.models.AssignmentResult;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignFulfilmentOperation;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.BulkAssignFulfilmentOperation;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.UnassignFulfilmentOperation;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Response;
+import java.util.List;
+
+/** Which warehouses fulfil which products for which stores. */
+@Path("fulfilment")
+@ApplicationScoped
+@RunOnVirtualThread
+@Produces("application/json")
+@Consumes("application/json")
+public class FulfilmentResource {
+
+  @Inject AssignmentStore assignmentStore;
+  @Inject AssignFulfilmentOperation assignFulfilmentOperation;
+  @Inject BulkAssignFulfilmentOperation bulkAssignFulfilmentOperation;
+  @Inject UnassignFulfilmentOperation unassignFulfilmentOperation;
+
+  @POST
+  public Response assign(Assignment assignment) {
+    if (assignment == null) {
+      throw new RequestRejectedException("Assignment was not set on request.", 422);
+    }
+    assignFulfilmentOperation.assign(assignment);
+    return Response.ok(assignment).status(201).build();
+  }
+
+  @POST
+  @Path("bulk")
+  @Consumes({"application/json", NdjsonStream.MEDIA_TYPE})
+  public List<AssignmentResult> assignAll(List<Assignment> assignments) {
+    if (assignments == null) {
+      throw new RequestRejectedException("Assignments were not set on request.", 422);
+    }
+    return bulkAssignFulfilmentOperation.assignAll(assignments);
+  }
+
+  @GET
+  @Path("store/{storeId}")
+  public List<Assignment> getByStore(@PathParam("storeId") Long storeId) {
+    return assignmentStore.findByStore(storeId);
+  }
+
+  @DELETE
+  @Path("store/{storeId}/product/{productId}/warehouse/{businessUnitCode}")
+  public Response unassign(
+      @PathParam("storeId") Long storeId,
+      @PathParam("productId") Long productId,
+      @PathParam("businessUnitCode") String businessUnitCode) {
+    unassignFulfilmentOperation.unassign(new Assignment(productId, storeId, businessUnitCode));
+    return Response.status(204).build();
+  }
+}
@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.fulfilment.domain.exceptions;
+
+import com.fulfilment.application.monolith.common.OperationRejectedException;
+
+/** A fulfilment assignment refused by one of the business rules. */
+public class AssignmentRejectedException extends OperationRejectedException {
+
+  /** The rule that rejected the assignment, along with the HTTP status it is reported with. */
+  public enum Reason {
+    INCOMPLETE_ASSIGNMENT(400),
+    PRODUCT_NOT_FOUND(404),
+    STORE_NOT_FOUND(404),
+    WAREHOUSE_NOT_FOUND(404),
+    ALREADY_ASSIGNED(409),
+    NOT_ASSIGNED(404),
+    PRODUCT_STORE_WAREHOUSE_LIMIT(400),
+    STORE_WAREHOUSE_LIMIT(400),
+    WAREHOUSE_PRODUCT_LIMIT(400),
+    CONCURRENT_UPDATE(409);
+
+    public final int status;
+
+    Reason(int status) {
+      this.status = status;
+    }
+  }
+
+  public final Reason reason;
+
+  public AssignmentRejectedException(Reason reason, String message) {
+    super(message, reason.status);
+    this.reason = reason;
+  }
+
+  @Override
+  public String reasonCode() {
+    return reason.name();
+  }
+}
@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.fulfilment.domain.models;
+
+import java.time.LocalDateTime;
+
+/** A warehouse fulfilling a product for a store. */
+public class Assignment {
+
+  public Long productId;
+
+  public Long storeId;
+
+  public String businessUnitCode;
+
+  public LocalDateTime createdAt;
+
+  public Assignment() {}
+
+  public Assignment(Long productId, Long storeId, String businessUnitCode) {
+    this.productId = productId;
+    this.storeId = storeId;
+    this.businessUnitCode = businessUnitCode;
+  }
+}
@@ -0,0 +1,28 @@
+package com.fulfilment.application.monolith.fulfilment.domain.models;
+
+public class AssignmentResult {
+
+  // position of the assignment in the submitted batch
+  public int index;
+
+  public Long productId;
+
+  public Long storeId;
+
+  public String businessUnitCode;
+
+  // why the assignment was rejected, null when it was made
+  public String error;
+
+  public AssignmentResult(int index, Assignment assignment, String error) {
+    this.index = index;
+    this.productId = assignment.productId;
+    this.storeId = assignment.storeId;
+    this.businessUnitCode = assignment.businessUnitCode;
+    this.error = error;
+  }
+
+  public boolean isAssigned() {
+    return error == null;
+  }
+}
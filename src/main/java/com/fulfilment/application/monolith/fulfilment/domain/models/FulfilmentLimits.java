@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.fulfilment.domain.models;
+
+/** Caps on how warehouses, products and stores may be linked. */
+public class FulfilmentLimits {
+
+  public static final FulfilmentLimits DEFAULT = new FulfilmentLimits(2, 3, 5);
+
+  // warehouses that may fulfil one product for one store
+  public final int maxWarehousesPerProductPerStore;
+
+  // distinct warehouses that may fulfil a store
+  public final int maxWarehousesPerStore;
+
+  // distinct product types a warehouse may store
+  public final int maxProductsPerWarehouse;
+
+  public FulfilmentLimits(
+      int maxWarehousesPerProductPerStore, int maxWarehousesPerStore, int maxProductsPerWarehouse) {
+    this.maxWarehousesPerProductPerStore = maxWarehousesPerProductPerStore;
+    this.maxWarehousesPerStore = maxWarehousesPerStore;
+    this.maxProductsPerWarehouse = maxProductsPerWarehouse;
+  }
+}
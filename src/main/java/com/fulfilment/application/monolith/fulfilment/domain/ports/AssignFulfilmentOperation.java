@@ -0,0 +1,7 @@
+package com.fulfilment.application.monolith.fulfilment.domain.ports;
+
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+
+public interface AssignFulfilmentOperation {
+  void assign(Assignment assignment);
+}
@@ -0,0 +1,48 @@
+package com.fulfilment.application.monolith.fulfilment.domain.ports;
+
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException.Reason;
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+import com.fulfilment.application.monolith.fulfilment.domain.models.FulfilmentLimits;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface AssignmentStore {
+
+  /** Thrown when concurrent assignments on the same counters could not be serialised. */
+  class ConcurrentAssignmentException extends RuntimeException {
+    public ConcurrentAssignmentException(Throwable cause) {
+      super("Assignments were changed concurrently, retry the request", cause);
+    }
+  }
+
+  /**
+   * Records the assignment unless it breaks one of the limits, atomically with respect to other
+   * assignments. Returns the rule that refused it, or null when it was recorded. A refused
+   * assignment leaves the counts as they were.
+   */
+  Reason assign(Assignment assignment, FulfilmentLimits limits);
+
+  /** Removes the assignment and releases what it counted against the limits. */
+  boolean unassign(Assignment assignment);
+
+  /** Unassigns every product and store from an archived warehouse, returning how many it had. */
+  int releaseWarehouse(String businessUnitCode);
+
+  /** Unassigns every product and warehouse from a deleted store, returning how many it had. */
+  int releaseStore(Long storeId);
+
+  /** Unassigns a deleted product from every store and warehouse, returning how many it had. */
+  int releaseProduct(Long productId);
+
+  List<Assignment> findByStore(Long storeId);
+
+  /** Which of the given ids belong to existing products, kept from deletion until commit. */
+  Set<Long> findExistingProductIds(Collection<Long> productIds);
+
+  /** Which of the given ids belong to existing stores, kept from deletion until commit. */
+  Set<Long> findExistingStoreIds(Collection<Long> storeIds);
+
+  /** Which of the given business unit codes are active, kept from archiving until commit. */
+  Set<String> findActiveBusinessUnitCodes(Collection<String> businessUnitCodes);
+}
@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.fulfilment.domain.ports;
+
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+import com.fulfilment.application.monolith.fulfilment.domain.models.AssignmentResult;
+import java.util.List;
+
+public interface BulkAssignFulfilmentOperation {
+  List<AssignmentResult> assignAll(List<Assignment> assignments);
+}
@@ -0,0 +1,7 @@
+package com.fulfilment.application.monolith.fulfilment.domain.ports;
+
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+
+public interface UnassignFulfilmentOperation {
+  void unassign(Assignment assignment);
+}
@@ -0,0 +1,113 @@
+package com.fulfilment.application.monolith.fulfilment.domain.usecases;
+
+import com.fulfilment.application.monolith.common.MeteredOperation;
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException;
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException.Reason;
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+import com.fulfilment.application.monolith.fulfilment.domain.models.FulfilmentLimits;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignFulfilmentOperation;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore.ConcurrentAssignmentException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@ApplicationScoped
+@MeteredOperation("fulfilment.assign")
+public class AssignFulfilmentUseCase implements AssignFulfilmentOperation {
+
+  private final AssignmentStore assignmentStore;
+
+  public AssignFulfilmentUseCase(AssignmentStore assignmentStore) {
+    this.assignmentStore = assignmentStore;
+  }
+
+  @Override
+  @Transactional
+  public void assign(Assignment assignment) {
+    // 1. All three parties must be given and exist, the warehouse must be active. The lookups keep
+    // them so until the assignment is recorded.
+    if (!isComplete(assignment)) {
+      throw rejection(Reason.INCOMPLETE_ASSIGNMENT, assignment, FulfilmentLimits.DEFAULT);
+    }
+    if (assignmentStore.findExistingProductIds(List.of(assignment.productId)).isEmpty()) {
+      throw rejection(Reason.PRODUCT_NOT_FOUND, assignment, FulfilmentLimits.DEFAULT);
+    }
+    if (assignmentStore.findExistingStoreIds(List.of(assignment.storeId)).isEmpty()) {
+      throw rejection(Reason.STORE_NOT_FOUND, assignment, FulfilmentLimits.DEFAULT);
+    }
+    if (assignmentStore
+        .findActiveBusinessUnitCodes(List.of(assignment.businessUnitCode))
+        .isEmpty()) {
+      throw rejection(Reason.WAREHOUSE_NOT_FOUND, assignment, FulfilmentLimits.DEFAULT);
+    }
+
+    // 2. The limits are checked and counted by the store in one step, so concurrent assignments
+    // cannot overshoot them.
+    assignment.createdAt = LocalDateTime.now();
+    Reason refused;
+    try {
+      refused = assignmentStore.assign(assignment, FulfilmentLimits.DEFAULT);
+    } catch (ConcurrentAssignmentException e) {
+      throw new AssignmentRejectedException(Reason.CONCURRENT_UPDATE, e.getMessage());
+    }
+    if (refused != null) {
+      throw rejection(refused, assignment, FulfilmentLimits.DEFAULT);
+    }
+  }
+
+  static boolean isComplete(Assignment assignment) {
+    return assignment.productId != null
+        && assignment.storeId != null
+        && assignment.businessUnitCode != null;
+  }
+
+  static AssignmentRejectedException rejection(
+      Reason reason, Assignment assignment, FulfilmentLimits limits) {
+    String message =
+        switch (reason) {
+          case INCOMPLETE_ASSIGNMENT ->
+              "Assignment requires a productId, a storeId and a businessUnitCode";
+          case PRODUCT_NOT_FOUND -> "Product does not exist: " + assignment.productId;
+          case STORE_NOT_FOUND -> "Store does not exist: " + assignment.storeId;
+          case WAREHOUSE_NOT_FOUND ->
+              "Active warehouse not found for business unit code: " + assignment.businessUnitCode;
+          case ALREADY_ASSIGNED ->
+              "Warehouse "
+                  + assignment.businessUnitCode
+                  + " already fulfils product "
+                  + assignment.productId
+                  + " for store "
+                  + assignment.storeId;
+          case NOT_ASSIGNED ->
+              "Warehouse "
+                  + assignment.businessUnitCode
+                  + " does not fulfil product "
+                  + assignment.productId
+                  + " for store "
+                  + assignment.storeId;
+          case PRODUCT_STORE_WAREHOUSE_LIMIT ->
+              "Product "
+                  + assignment.productId
+                  + " is already fulfilled by "
+                  + limits.maxWarehousesPerProductPerStore
+                  + " warehouses for store "
+                  + assignment.storeId;
+          case STORE_WAREHOUSE_LIMIT ->
+              "Store "
+                  + assignment.storeId
+                  + " is already fulfilled by "
+                  + limits.maxWarehousesPerStore
+                  + " warehouses";
+          case WAREHOUSE_PRODUCT_LIMIT ->
+              "Warehouse "
+                  + assignment.businessUnitCode
+                  + " already stores "
+                  + limits.maxProductsPerWarehouse
+                  + " product types";
+          case CONCURRENT_UPDATE -> "Assignments were changed concurrently, retry the request";
+        };
+    return new AssignmentRejectedException(reason, message);
+  }
+}
@@ -0,0 +1,80 @@
+package com.fulfilment.application.monolith.fulfilment.domain.usecases;
+
+import com.fulfilment.application.monolith.common.MeteredOperation;
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException;
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException.Reason;
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+import com.fulfilment.application.monolith.fulfilment.domain.models.AssignmentResult;
+import com.fulfilment.application.monolith.fulfilment.domain.models.FulfilmentLimits;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore.ConcurrentAssignmentException;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.BulkAssignFulfilmentOperation;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@ApplicationScoped
+@MeteredOperation("fulfilment.bulk-assign")
+public class BulkAssignFulfilmentUseCase implements BulkAssignFulfilmentOperation {
+
+  private final AssignmentStore assignmentStore;
+
+  public BulkAssignFulfilmentUseCase(AssignmentStore assignmentStore) {
+    this.assignmentStore = assignmentStore;
+  }
+
+  @Override
+  @Transactional
+  public List<AssignmentResult> assignAll(List<Assignment> assignments) {
+    // The parties of the whole batch are looked up once, then every assignment is recorded in
+    // order so earlier ones count against the limits of later ones.
+    Set<Long> productIds = new HashSet<>();
+    Set<Long> storeIds = new HashSet<>();
+    Set<String> businessUnitCodes = new HashSet<>();
+    for (Assignment assignment : assignments) {
+      if (AssignFulfilmentUseCase.isComplete(assignment)) {
+        productIds.add(assignment.productId);
+        storeIds.add(assignment.storeId);
+        businessUnitCodes.add(assignment.businessUnitCode);
+      }
+    }
+    Set<Long> existingProducts = assignmentStore.findExistingProductIds(productIds);
+    Set<Long> existingStores = assignmentStore.findExistingStoreIds(storeIds);
+    Set<String> activeWarehouses = assignmentStore.findActiveBusinessUnitCodes(businessUnitCodes);
+
+    LocalDateTime now = LocalDateTime.now();
+    List<AssignmentResult> results = new ArrayList<>(assignments.size());
+    try {
+      for (int i = 0; i < assignments.size(); i++) {
+        Assignment assignment = assignments.get(i);
+        Reason refused;
+        if (!AssignFulfilmentUseCase.isComplete(assignment)) {
+          refused = Reason.INCOMPLETE_ASSIGNMENT;
+        } else if (!existingProducts.contains(assignment.productId)) {
+          refused = Reason.PRODUCT_NOT_FOUND;
+        } else if (!existingStores.contains(assignment.storeId)) {
+          refused = Reason.STORE_NOT_FOUND;
+        } else if (!activeWarehouses.contains(assignment.businessUnitCode)) {
+          refused = Reason.WAREHOUSE_NOT_FOUND;
+        } else {
+          assignment.createdAt = now;
+          refused = assignmentStore.assign(assignment, FulfilmentLimits.DEFAULT);
+        }
+        String error =
+            refused == null
+                ? null
+                : AssignFulfilmentUseCase.rejection(refused, assignment, FulfilmentLimits.DEFAULT)
+                    .getMessage();
+        results.add(new AssignmentResult(i, assignment, error));
+      }
+    } catch (ConcurrentAssignmentException e) {
+      // the database aborted the transaction, nothing of the batch was kept
+      throw new AssignmentRejectedException(Reason.CONCURRENT_UPDATE, e.getMessage());
+    }
+    return results;
+  }
+}
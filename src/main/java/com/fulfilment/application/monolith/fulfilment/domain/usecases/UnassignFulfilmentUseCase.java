@@ -0,0 +1,42 @@
+package com.fulfilment.application.monolith.fulfilment.domain.usecases;
+
+import com.fulfilment.application.monolith.common.MeteredOperation;
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException;
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException.Reason;
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+import com.fulfilment.application.monolith.fulfilment.domain.models.FulfilmentLimits;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore.ConcurrentAssignmentException;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.UnassignFulfilmentOperation;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+
+@ApplicationScoped
+@MeteredOperation("fulfilment.unassign")
+public class UnassignFulfilmentUseCase implements UnassignFulfilmentOperation {
+
+  private final AssignmentStore assignmentStore;
+
+  public UnassignFulfilmentUseCase(AssignmentStore assignmentStore) {
+    this.assignmentStore = assignmentStore;
+  }
+
+  @Override
+  @Transactional
+  public void unassign(Assignment assignment) {
+    if (!AssignFulfilmentUseCase.isComplete(assignment)) {
+      throw AssignFulfilmentUseCase.rejection(
+          Reason.INCOMPLETE_ASSIGNMENT, assignment, FulfilmentLimits.DEFAULT);
+    }
+    boolean removed;
+    try {
+      removed = assignmentStore.unassign(assignment);
+    } catch (ConcurrentAssignmentException e) {
+      throw new AssignmentRejectedException(Reason.CONCURRENT_UPDATE, e.getMessage());
+    }
+    if (!removed) {
+      throw AssignFulfilmentUseCase.rejection(
+          Reason.NOT_ASSIGNED, assignment, FulfilmentLimits.DEFAULT);
+    }
+  }
+}
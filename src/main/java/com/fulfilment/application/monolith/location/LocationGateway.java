@@ -2,31 +2,124 @@ package com.fulfilment.application.monolith.location;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
 @ApplicationScoped
 public class LocationGateway implements LocationResolver {
 
-  private static final List<Location> locations = new ArrayList<>();
+  static final String DEFAULT_RESOURCE = "locations.csv";
 
-  static {
-    locations.add(new Location("ZWOLLE-001", 1, 40));
-    locations.add(new Location("ZWOLLE-002", 2, 50));
-    locations.add(new Location("AMSTERDAM-001", 5, 100));
-    locations.add(new Location("AMSTERDAM-002", 3, 75));
-    locations.add(new Location("TILBURG-001", 1, 40));
-    locations.add(new Location("HELMOND-001", 1, 45));
-    locations.add(new Location("EINDHOVEN-001", 2, 70));
-    locations.add(new Location("VETSBY-001", 1, 90));
+  private static final Logger LOGGER = Logger.getLogger(LocationGateway.class.getName());
+
+  // optional file on disk overriding the bundled locations, re-read on every reload
+  @ConfigProperty(name = "location.registry.file")
+  Optional<String> registryFile = Optional.empty();
+
+  // immutable snapshot, replaced as a whole on reload so lookups never see a partial registry
+  private volatile Map<String, Location> locations;
+
+  /**
+   * The bundled locations, parsed once. The native image initialises this class at build time, see
+   * {@code quarkus.native.additional-build-args}, so it starts without reading the resource.
+   */
+  static final class BundledLocations {
+    static final Map<String, Location> LOCATIONS = loadFromClasspath(DEFAULT_RESOURCE);
+
+    private BundledLocations() {}
+  }
+
+  public LocationGateway() {
+    this.locations = BundledLocations.LOCATIONS;
+  }
+
+  @PostConstruct
+  void init() {
+    if (registryFile.isPresent()) {
+      reload();
+    }
   }
 
   @Override
   public Location resolveByIdentifier(String identifier) {
-    return locations.stream()
-        .filter(l -> l.identification.equals(identifier))
-        .findFirst()
-        .orElse(null);
+    if (identifier == null) {
+      return null;
+    }
+    return locations.get(identifier);
+  }
+
+  public Collection<Location> getAll() {
+    return locations.values();
+  }
+
+  /** Re-reads the configured location source and atomically swaps in the new registry. */
+  public int reload() {
+    Map<String, Location> snapshot =
+        registryFile.isPresent()
+            ? loadFromFile(Path.of(registryFile.get()))
+            : BundledLocations.LOCATIONS;
+    this.locations = snapshot;
+    LOGGER.infof("Location registry loaded with %d locations", snapshot.size());
+    return snapshot.size();
+  }
+
+  static Map<String, Location> loadFromFile(Path file) {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return parse(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read locations from " + file, e);
+    }
+  }
+
+  static Map<String, Location> loadFromClasspath(String resource) {
+    InputStream in = LocationGateway.class.getClassLoader().getResourceAsStream(resource);
+    if (in == null) {
+      throw new IllegalStateException("Location resource not found on classpath: " + resource);
+    }
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      return parse(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read locations from " + resource, e);
+    }
+  }
+
+  private static Map<String, Location> parse(BufferedReader reader) throws IOException {
+    Map<String, Location> parsed = new HashMap<>();
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split(",");
+      if (fields.length != 3) {
+        throw new IllegalArgumentException(
+            "Malformed location at line " + lineNumber + ": " + line);
+      }
+      Location location =
+          new Location(
+              fields[0].trim(),
+              Integer.parseInt(fields[1].trim()),
+              Integer.parseInt(fields[2].trim()));
+      parsed.put(location.identification, location);
+    }
+    return Map.copyOf(parsed);
   }
 }
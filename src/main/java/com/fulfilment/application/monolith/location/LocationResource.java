@@ -0,0 +1,53 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@Path("location")
+@ApplicationScoped
+@Produces("application/json")
+public class LocationResource {
+
+  @Inject LocationGateway locationGateway;
+  @Inject WarehouseStore warehouseStore;
+
+  @POST
+  @Path("reload")
+  public Map<String, Integer> reload() {
+    return Map.of("locations", locationGateway.reload());
+  }
+
+  /**
+   * Every known location with the usage of its active warehouses, ordered by location. The usage is
+   * kept per location as warehouses are created and archived, so this reads one row per location.
+   */
+  @GET
+  @Path("utilisation")
+  public List<LocationUtilisation> utilisation() {
+    Map<String, LocationUsage> usageByLocation = warehouseStore.getUsageByLocation();
+    List<LocationUtilisation> utilisation = new ArrayList<>();
+    for (Location location : locationGateway.getAll()) {
+      LocationUsage usage = usageByLocation.get(location.identification);
+      utilisation.add(
+          new LocationUtilisation(
+              location.identification,
+              usage == null ? 0 : usage.activeWarehouses,
+              location.maxNumberOfWarehouses,
+              usage == null ? 0 : usage.totalCapacity,
+              location.maxCapacity));
+    }
+    utilisation.sort(Comparator.comparing(entry -> entry.location));
+    return utilisation;
+  }
+}
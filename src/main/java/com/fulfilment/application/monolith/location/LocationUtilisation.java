@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.location;
+
+/** How much of a location its active warehouses use, next to the limits of the location. */
+public class LocationUtilisation {
+  public String location;
+
+  public long activeWarehouses;
+  public int maxNumberOfWarehouses;
+
+  // sum of the capacities of the active warehouses
+  public long totalCapacity;
+  public int maxCapacity;
+
+  public LocationUtilisation(
+      String location,
+      long activeWarehouses,
+      int maxNumberOfWarehouses,
+      long totalCapacity,
+      int maxCapacity) {
+    this.location = location;
+    this.activeWarehouses = activeWarehouses;
+    this.maxNumberOfWarehouses = maxNumberOfWarehouses;
+    this.totalCapacity = totalCapacity;
+    this.maxCapacity = maxCapacity;
+  }
+}
@@ -1,7 +1,21 @@
 package com.fulfilment.application.monolith.products;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 
 @ApplicationScoped
-public class ProductRepository implements PanacheRepository<Product> {}
+public class ProductRepository implements PanacheRepository<Product> {
+
+  /** All products ordered by name, served from the query cache until a product changes. */
+  public List<Product> listAllByName() {
+    return findAll(Sort.by("name")).withHint(HibernateHints.HINT_CACHEABLE, true).list();
+  }
+
+  /** Keyset page of products ordered by id, starting right after {@code afterId}. */
+  public List<Product> findPage(Long afterId, int limit) {
+    return find("id > ?1", Sort.by("id"), afterId == null ? 0L : afterId).page(0, limit).list();
+  }
+}
@@ -1,38 +1,108 @@
 package com.fulfilment.application.monolith.products;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.quarkus.panache.common.Sort;
+import com.fulfilment.application.monolith.common.NdjsonStream;
+import com.fulfilment.application.monolith.common.RequestRejectedException;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
-import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.ext.ExceptionMapper;
-import jakarta.ws.rs.ext.Provider;
+import java.math.BigDecimal;
 import java.util.List;
-import org.jboss.logging.Logger;
 
 @Path("product")
 @ApplicationScoped
+@RunOnVirtualThread
 @Produces("application/json")
 @Consumes("application/json")
 public class ProductResource {
 
+  public static class ProductCreatedEvent {
+    public final Product product;
+    public ProductCreatedEvent(Product product) { this.product = product; }
+  }
+
+  public static class ProductUpdatedEvent {
+    public final Product product;
+    public ProductUpdatedEvent(Product product) { this.product = product; }
+  }
+
+  public static class ProductDeletedEvent {
+    public final Product product;
+    public ProductDeletedEvent(Product product) { this.product = product; }
+  }
+
+  static final int MAX_PAGE_SIZE = 1000;
+
   @Inject ProductRepository productRepository;
 
-  private static final Logger LOGGER = Logger.getLogger(ProductResource.class.getName());
+  @Inject Event<ProductCreatedEvent> productCreatedEvent;
+  @Inject Event<ProductUpdatedEvent> productUpdatedEvent;
+  @Inject Event<ProductDeletedEvent> productDeletedEvent;
+
+  @Inject ProductSearch productSearch;
+
+  @Inject ObjectMapper objectMapper;
+
+  @GET
+  public List<Product> get(@QueryParam("limit") Integer limit, @QueryParam("after") Long after) {
+    if (limit == null) {
+      return productRepository.listAllByName();
+    }
+    if (limit < 1) {
+      throw new RequestRejectedException("Invalid page size: " + limit, 400);
+    }
+    return productRepository.findPage(after, Math.min(limit, MAX_PAGE_SIZE));
+  }
 
   @GET
-  public List<Product> get() {
-    return productRepository.listAll(Sort.by("name"));
+  @Path("stream")
+  @Produces(NdjsonStream.MEDIA_TYPE)
+  public Response stream() {
+    return NdjsonStream.of(objectMapper, "from Product order by id", Product.class);
+  }
+
+  /**
+   * Products whose name contains, or with {@code match=prefix} starts with, the given text,
+   * ignoring case, optionally within a price range and in stock. Ordered by id and paged like the
+   * list.
+   */
+  @GET
+  @Path("search")
+  public List<Product> search(
+      @QueryParam("name") String name,
+      @QueryParam("match") @DefaultValue("substring") String match,
+      @QueryParam("minPrice") BigDecimal minPrice,
+      @QueryParam("maxPrice") BigDecimal maxPrice,
+      @QueryParam("inStock") boolean inStock,
+      @QueryParam("limit") Integer limit,
+      @QueryParam("after") Long after) {
+    if (!"substring".equals(match) && !"prefix".equals(match)) {
+      throw new RequestRejectedException(
+          "Invalid match, expected substring or prefix: " + match, 400);
+    }
+    if (limit != null && limit < 1) {
+      throw new RequestRejectedException("Invalid page size: " + limit, 400);
+    }
+    return productSearch.search(
+        name,
+        "prefix".equals(match),
+        minPrice,
+        maxPrice,
+        inStock,
+        after == null ? 0L : after,
+        limit == null ? MAX_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE));
   }
 
   @GET
@@ -40,7 +110,7 @@ public class ProductResource {
   public Product getSingle(Long id) {
     Product entity = productRepository.findById(id);
     if (entity == null) {
-      throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
+      throw new RequestRejectedException("Product with id of " + id + " does not exist.", 404);
     }
     return entity;
   }
@@ -49,10 +119,13 @@ public class ProductResource {
   @Transactional
   public Response create(Product product) {
     if (product.id != null) {
-      throw new WebApplicationException("Id was invalidly set on request.", 422);
+      throw new RequestRejectedException("Id was invalidly set on request.", 422);
     }
 
     productRepository.persist(product);
+
+    productCreatedEvent.fire(new ProductCreatedEvent(product));
+
     return Response.ok(product).status(201).build();
   }
 
@@ -61,13 +134,13 @@ public class ProductResource {
   @Transactional
   public Product update(Long id, Product product) {
     if (product.name == null) {
-      throw new WebApplicationException("Product Name was not set on request.", 422);
+      throw new RequestRejectedException("Product Name was not set on request.", 422);
     }
 
     Product entity = productRepository.findById(id);
 
     if (entity == null) {
-      throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
+      throw new RequestRejectedException("Product with id of " + id + " does not exist.", 404);
     }
 
     entity.name = product.name;
@@ -77,6 +150,8 @@ public class ProductResource {
 
     productRepository.persist(entity);
 
+    productUpdatedEvent.fire(new ProductUpdatedEvent(entity));
+
     return entity;
   }
 
@@ -86,35 +161,15 @@ public class ProductResource {
   public Response delete(Long id) {
     Product entity = productRepository.findById(id);
     if (entity == null) {
-      throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
+      throw new RequestRejectedException("Product with id of " + id + " does not exist.", 404);
     }
     productRepository.delete(entity);
-    return Response.status(204).build();
-  }
+    // deleted now rather than at commit, after any assignment holding the product, so releasing
+    // its assignments finds that one too
+    productRepository.flush();
 
-  @Provider
-  public static class ErrorMapper implements ExceptionMapper<Exception> {
+    productDeletedEvent.fire(new ProductDeletedEvent(entity));
 
-    @Inject ObjectMapper objectMapper;
-
-    @Override
-    public Response toResponse(Exception exception) {
-      LOGGER.error("Failed to handle request", exception);
-
-      int code = 500;
-      if (exception instanceof WebApplicationException) {
-        code = ((WebApplicationException) exception).getResponse().getStatus();
-      }
-
-      ObjectNode exceptionJson = objectMapper.createObjectNode();
-      exceptionJson.put("exceptionType", exception.getClass().getName());
-      exceptionJson.put("code", code);
-
-      if (exception.getMessage() != null) {
-        exceptionJson.put("error", exception.getMessage());
-      }
-
-      return Response.status(code).entity(exceptionJson).build();
-    }
+    return Response.status(204).build();
   }
 }
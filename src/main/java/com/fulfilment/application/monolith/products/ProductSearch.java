@@ -0,0 +1,216 @@
+package com.fulfilment.application.monolith.products;
+
+import com.fulfilment.application.monolith.changes.ChangeFeed;
+import com.fulfilment.application.monolith.changes.ChangeFeed.Change;
+import com.fulfilment.application.monolith.common.RequestRejectedException;
+import com.fulfilment.application.monolith.products.ProductResource.ProductCreatedEvent;
+import com.fulfilment.application.monolith.products.ProductResource.ProductDeletedEvent;
+import com.fulfilment.application.monolith.products.ProductResource.ProductUpdatedEvent;
+import com.fulfilment.application.monolith.products.ProductSearchIndex.Query;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.Startup;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.jpa.HibernateHints;
+import org.jboss.logging.Logger;
+
+/**
+ * Product search served from a {@link ProductSearchIndex} of the whole catalogue, built at startup.
+ * The products changed on this instance are indexed as soon as their change commits. The ones
+ * changed on other instances are picked up from the {@link ChangeFeed} and read again from the
+ * database, which also corrects whatever this instance indexed out of order.
+ */
+@Startup
+@ApplicationScoped
+public class ProductSearch {
+
+  private static final Logger LOGGER = Logger.getLogger(ProductSearch.class.getName());
+
+  @ConfigProperty(name = "products.search.batch-size", defaultValue = "1000")
+  int batchSize;
+
+  @Inject ProductRepository productRepository;
+  @Inject ChangeFeed changeFeed;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private ProductSearchIndex index;
+  // the change feed position the index is up to date with
+  private volatile long position;
+
+  @PostConstruct
+  void build() {
+    rebuild();
+  }
+
+  /**
+   * The products matching the query after the given id, ordered by id. Changes are seen here right
+   * after they commit on this instance, and within the refresh interval when made elsewhere.
+   */
+  public List<Product> search(
+      String name,
+      boolean prefix,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      boolean inStock,
+      long afterId,
+      int limit) {
+    Query query = new Query(name, prefix, minPrice, maxPrice, inStock);
+    long[] ids;
+    lock.readLock().lock();
+    try {
+      ids = index.search(query, afterId, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    List<Long> found = new ArrayList<>(ids.length);
+    for (long id : ids) {
+      found.add(id);
+    }
+    // from the second-level cache where they are, the others in one query
+    List<Product> products =
+        productRepository.getSession().byMultipleIds(Product.class).multiLoad(found);
+    // deleted since they were found
+    products.removeIf(Objects::isNull);
+    return products;
+  }
+
+  void onProductCreated(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) ProductCreatedEvent event) {
+    index(event.product);
+  }
+
+  void onProductUpdated(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) ProductUpdatedEvent event) {
+    index(event.product);
+  }
+
+  void onProductDeleted(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) ProductDeletedEvent event) {
+    lock.writeLock().lock();
+    try {
+      index.remove(event.product.id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Scheduled(
+      every = "${products.search.refresh-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void followChanges() {
+    List<Change> changes;
+    do {
+      try {
+        changes = changeFeed.poll(position, batchSize, Duration.ZERO).await().indefinitely();
+      } catch (RequestRejectedException e) {
+        // fell behind the retention of the feed, the changes in between are lost to it
+        LOGGER.warnf("Rebuilding the product search index: %s", e.getMessage());
+        rebuild();
+        return;
+      }
+      Set<Long> changed = new HashSet<>();
+      for (Change change : changes) {
+        if ("PRODUCT".equals(change.entityType)) {
+          changed.add(Long.valueOf(change.entityKey));
+        }
+      }
+      if (!changed.isEmpty()) {
+        reindex(changed);
+      }
+      if (!changes.isEmpty()) {
+        position = changes.get(changes.size() - 1).position;
+      }
+    } while (changes.size() == batchSize);
+  }
+
+  private void rebuild() {
+    ProductSearchIndex built = new ProductSearchIndex();
+    // the feed is followed from before the catalogue is read, so no change falls in between
+    long head =
+        QuarkusTransaction.requiringNew()
+            .call(
+                () -> {
+                  long latest =
+                      ((Number)
+                              productRepository
+                                  .getEntityManager()
+                                  .createNativeQuery(
+                                      "select coalesce(max(position), 0) from change_event")
+                                  .getSingleResult())
+                          .longValue();
+                  productRepository
+                      .getEntityManager()
+                      .createQuery(
+                          "select p.id, p.name, p.price, p.stock from Product p order by p.id",
+                          Object[].class)
+                      .setHint(HibernateHints.HINT_FETCH_SIZE, batchSize)
+                      .getResultStream()
+                      .forEach(
+                          row ->
+                              built.put(
+                                  (Long) row[0],
+                                  (String) row[1],
+                                  (BigDecimal) row[2],
+                                  (Integer) row[3]));
+                  return latest;
+                });
+    lock.writeLock().lock();
+    try {
+      index = built;
+      position = head;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    LOGGER.debugf("Indexed %d products for search", built.size());
+  }
+
+  private void reindex(Set<Long> ids) {
+    Map<Long, Product> products = new HashMap<>();
+    QuarkusTransaction.requiringNew()
+        .run(
+            () -> {
+              for (Product product : productRepository.list("id in ?1", ids)) {
+                products.put(product.id, product);
+              }
+            });
+    lock.writeLock().lock();
+    try {
+      for (Long id : ids) {
+        Product product = products.get(id);
+        if (product == null) {
+          index.remove(id);
+        } else {
+          index.put(product.id, product.name, product.price, product.stock);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void index(Product product) {
+    lock.writeLock().lock();
+    try {
+      index.put(product.id, product.name, product.price, product.stock);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,300 @@
+package com.fulfilment.application.monolith.products;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory index of the products searched on {@code GET /product/search}. Every product version
+ * takes a slot holding its lowercased name, price and stock, and each trigram of the name has a
+ * posting list of the slots containing it, kept in ascending order in a plain {@code int[]}. A name
+ * query walks the shortest list of its trigrams, probes the others and checks the slots in all of
+ * them. Changing a product moves it to a new slot, so the lists are only ever appended to; the
+ * slots left behind are skipped and dropped by a compaction once they are the majority.
+ *
+ * <p>Slots are taken in the order of the product ids, until a product changes and moves behind
+ * products with a higher id. A search stops walking that ordered run of slots once it has enough
+ * matches with lower ids, and only checks the slots after it. A compaction restores the order.
+ *
+ * <p>Not thread-safe, the {@link ProductSearch} guards it.
+ */
+final class ProductSearchIndex {
+
+  /** What a search asks for; any of the filters may be left out. */
+  record Query(
+      String name, boolean prefix, BigDecimal minPrice, BigDecimal maxPrice, boolean inStock) {}
+
+  // marks the start of a name, so a prefix has trigrams of its own even when it is two chars long
+  private static final char START = '\u0002';
+  private static final long NO_PRICE = Long.MIN_VALUE;
+  // the range of a bound in cents, NO_PRICE left out
+  private static final BigDecimal MIN_BOUND = BigDecimal.valueOf(NO_PRICE + 1, 2);
+  private static final BigDecimal MAX_BOUND = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+  private static final int MIN_COMPACTION = 1024;
+
+  private long[] ids = new long[16];
+  private String[] names = new String[16];
+  private long[] prices = new long[16];
+  private int[] stocks = new int[16];
+  private final BitSet live = new BitSet();
+  private int slots;
+  // the slots before it hold ascending ids
+  private int orderedSlots;
+
+  private final Map<Long, Integer> slotOfId = new HashMap<>();
+  private final Map<Long, Postings> postings = new HashMap<>();
+
+  /** Adds the product, or replaces what is indexed of it. */
+  void put(long id, String name, BigDecimal price, int stock) {
+    Integer old = slotOfId.get(id);
+    if (old != null) {
+      live.clear(old);
+    }
+    // rounded as the price column does
+    add(
+        id,
+        name == null ? "" : name.toLowerCase(Locale.ROOT),
+        cents(price, RoundingMode.HALF_UP),
+        stock);
+    compactIfMostlyDead();
+  }
+
+  void remove(long id) {
+    Integer old = slotOfId.remove(id);
+    if (old != null) {
+      live.clear(old);
+      compactIfMostlyDead();
+    }
+  }
+
+  int size() {
+    return slotOfId.size();
+  }
+
+  /**
+   * The ids of the products matching the query, after {@code afterId}, in ascending order and at
+   * most {@code limit} of them.
+   */
+  long[] search(Query query, long afterId, int limit) {
+    String needle = query.name() == null ? null : query.name().toLowerCase(Locale.ROOT);
+    long minPrice =
+        query.minPrice() == null ? NO_PRICE : bound(query.minPrice(), RoundingMode.CEILING);
+    long maxPrice =
+        query.maxPrice() == null ? Long.MAX_VALUE : bound(query.maxPrice(), RoundingMode.FLOOR);
+    boolean priced = minPrice != NO_PRICE || maxPrice != Long.MAX_VALUE;
+
+    // the ids matched so far, the highest on top so it makes room for a lower one
+    PriorityQueue<Long> matched = new PriorityQueue<>(limit + 1, (a, b) -> Long.compare(b, a));
+    Candidates candidates = candidates(needle, query.prefix());
+    if (afterId > 0) {
+      // the ordered run up to the id is passed over at once
+      int position = Arrays.binarySearch(ids, 0, orderedSlots, afterId);
+      candidates.skipTo(position >= 0 ? position + 1 : -position - 1);
+    }
+    for (int slot = candidates.next(); slot >= 0; slot = candidates.next()) {
+      long id = ids[slot];
+      if (matched.size() == limit && id > matched.peek()) {
+        if (slot < orderedSlots) {
+          // the rest of the ordered run has higher ids still
+          candidates.skipTo(orderedSlots);
+        }
+        continue;
+      }
+      if (id <= afterId
+          || !live.get(slot)
+          || (query.inStock() && stocks[slot] <= 0)
+          || priced
+              && (prices[slot] == NO_PRICE || prices[slot] < minPrice || prices[slot] > maxPrice)
+          || needle != null
+              && !(query.prefix()
+                  ? names[slot].startsWith(needle)
+                  : names[slot].contains(needle))) {
+        continue;
+      }
+      matched.add(id);
+      if (matched.size() > limit) {
+        matched.poll();
+      }
+    }
+
+    long[] result = new long[matched.size()];
+    for (int i = result.length - 1; i >= 0; i--) {
+      result[i] = matched.poll();
+    }
+    return result;
+  }
+
+  /** The slots that may match the name, all of them when it is too short to have a trigram. */
+  private Candidates candidates(String needle, boolean prefix) {
+    String text = needle == null ? "" : prefix ? START + needle : needle;
+    if (text.length() < 3) {
+      return new Candidates(null, slots);
+    }
+    Postings[] lists = new Postings[text.length() - 2];
+    for (int i = 0; i < lists.length; i++) {
+      lists[i] = postings.get(trigram(text, i));
+      if (lists[i] == null) {
+        return new Candidates(new Postings[] {new Postings()}, 0);
+      }
+    }
+    // the shortest list bounds the work, the others are only probed
+    Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+    return new Candidates(lists, slots);
+  }
+
+  private void compactIfMostlyDead() {
+    int dead = slots - slotOfId.size();
+    if (dead < MIN_COMPACTION || dead * 2 < slots) {
+      return;
+    }
+    // the live products are indexed again in the order of their ids
+    long[] liveIds = new long[slotOfId.size()];
+    int count = 0;
+    for (long id : slotOfId.keySet()) {
+      liveIds[count++] = id;
+    }
+    Arrays.sort(liveIds);
+    String[] liveNames = new String[count];
+    long[] livePrices = new long[count];
+    int[] liveStocks = new int[count];
+    for (int i = 0; i < count; i++) {
+      int slot = slotOfId.get(liveIds[i]);
+      liveNames[i] = names[slot];
+      livePrices[i] = prices[slot];
+      liveStocks[i] = stocks[slot];
+    }
+
+    ids = new long[Math.max(16, count)];
+    names = new String[ids.length];
+    prices = new long[ids.length];
+    stocks = new int[ids.length];
+    live.clear();
+    slots = 0;
+    orderedSlots = 0;
+    slotOfId.clear();
+    postings.clear();
+    for (int i = 0; i < count; i++) {
+      add(liveIds[i], liveNames[i], livePrices[i], liveStocks[i]);
+    }
+  }
+
+  private void add(long id, String lowercaseName, long priceCents, int stock) {
+    if (slots == ids.length) {
+      int capacity = slots * 2;
+      ids = Arrays.copyOf(ids, capacity);
+      names = Arrays.copyOf(names, capacity);
+      prices = Arrays.copyOf(prices, capacity);
+      stocks = Arrays.copyOf(stocks, capacity);
+    }
+    int slot = slots++;
+    ids[slot] = id;
+    names[slot] = lowercaseName;
+    prices[slot] = priceCents;
+    stocks[slot] = stock;
+    live.set(slot);
+    slotOfId.put(id, slot);
+    if (orderedSlots == slot && (slot == 0 || ids[slot - 1] < id)) {
+      orderedSlots++;
+    }
+
+    String text = START + lowercaseName;
+    for (int i = 0; i + 3 <= text.length(); i++) {
+      postings.computeIfAbsent(trigram(text, i), gram -> new Postings()).add(slot);
+    }
+  }
+
+  private static long trigram(String text, int from) {
+    return (long) text.charAt(from) << 32
+        | (long) text.charAt(from + 1) << 16
+        | text.charAt(from + 2);
+  }
+
+  private static long bound(BigDecimal price, RoundingMode rounding) {
+    // a bound beyond what cents can hold is clamped before it is scaled, it is on the far side of
+    // every price either way
+    if (price.compareTo(MAX_BOUND) > 0) {
+      return Long.MAX_VALUE;
+    }
+    if (price.compareTo(MIN_BOUND) < 0) {
+      return NO_PRICE + 1;
+    }
+    return cents(price, rounding);
+  }
+
+  private static long cents(BigDecimal price, RoundingMode rounding) {
+    return price == null ? NO_PRICE : price.setScale(2, rounding).unscaledValue().longValueExact();
+  }
+
+  /** The slots of the products having a trigram, in ascending order. */
+  private static final class Postings {
+    int[] slots = new int[4];
+    int size;
+
+    void add(int slot) {
+      // a name having the same trigram twice lists its slot once
+      if (size > 0 && slots[size - 1] == slot) {
+        return;
+      }
+      if (size == slots.length) {
+        slots = Arrays.copyOf(slots, size * 2);
+      }
+      slots[size++] = slot;
+    }
+
+    /** The first position from {@code from} on holding a slot not below the given one. */
+    int seek(int from, int slot) {
+      int position = Arrays.binarySearch(slots, from, size, slot);
+      return position >= 0 ? position : -position - 1;
+    }
+  }
+
+  /**
+   * The slots in all the given posting lists, in ascending order, or all slots below the given
+   * count without any. Intersected as they are asked for, so a search stopping early skips the rest
+   * of the work.
+   */
+  private static final class Candidates {
+    private final Postings[] lists;
+    private final int[] cursors;
+    private final int count;
+    private int next;
+
+    Candidates(Postings[] lists, int count) {
+      this.lists = lists;
+      this.cursors = lists == null ? null : new int[lists.length];
+      this.count = count;
+    }
+
+    int next() {
+      if (lists == null) {
+        return next < count ? next++ : -1;
+      }
+      while (cursors[0] < lists[0].size) {
+        int slot = lists[0].slots[cursors[0]++];
+        boolean inAll = true;
+        for (int l = 1; l < lists.length && inAll; l++) {
+          cursors[l] = lists[l].seek(cursors[l], slot);
+          inAll = cursors[l] < lists[l].size && lists[l].slots[cursors[l]] == slot;
+        }
+        if (inAll) {
+          return slot;
+        }
+      }
+      return -1;
+    }
+
+    /** Continues with the slots from the given one on. */
+    void skipTo(int slot) {
+      if (lists == null) {
+        next = Math.max(next, slot);
+      } else {
+        cursors[0] = lists[0].seek(cursors[0], slot);
+      }
+    }
+  }
+}
@@ -1,65 +1,55 @@
 package com.fulfilment.application.monolith.stores;
 
-import com.fulfilment.application.monolith.stores.StoreResource.StoreCreatedEvent;
-import com.fulfilment.application.monolith.stores.StoreResource.StoreUpdatedEvent;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.enterprise.event.Observes;
-import jakarta.enterprise.event.TransactionPhase;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
 @ApplicationScoped
 public class LegacyStoreManagerGateway {
 
-  public void onStoreCreated(
-      @Observes(during = TransactionPhase.AFTER_SUCCESS) StoreCreatedEvent event) {
-    createStoreOnLegacySystem(event.store);
-  }
-
-  public void onStoreUpdated(
-      @Observes(during = TransactionPhase.AFTER_SUCCESS) StoreUpdatedEvent event) {
-    updateStoreOnLegacySystem(event.store);
-  }
+  private static final Logger LOGGER =
+      Logger.getLogger(LegacyStoreManagerGateway.class.getName());
 
-  public void createStoreOnLegacySystem(Store store) {
-    // just to emulate as this would send this to a legacy system, let's write a temp file with the
-    writeToFile(store);
-  }
+  @ConfigProperty(name = "legacy.store-manager.directory")
+  String directory;
 
-  public void updateStoreOnLegacySystem(Store store) {
-    // just to emulate as this would send this to a legacy system, let's write a temp file with the
-    writeToFile(store);
-  }
+  /**
+   * Sends a batch of store changes to the legacy system. Just to emulate it, the whole batch is
+   * written to a single file, one line per change in the order given.
+   */
+  public void publish(List<StoreOutboxEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    StringBuilder content = new StringBuilder(events.size() * 64);
+    for (StoreOutboxEvent event : events) {
+      content
+          .append(event.type == StoreOutboxEvent.Type.CREATED ? "Store created." : "Store updated.")
+          .append(" [ id =")
+          .append(event.storeId)
+          .append(" ] [ name =")
+          .append(event.name)
+          .append(" ] [ items on stock =")
+          .append(event.quantityProductsInStock)
+          .append("]\n");
+    }
 
-  private void writeToFile(Store store) {
+    Path file =
+        Path.of(directory)
+            .resolve(
+                "legacy-stores-" + events.get(0).id + "-" + events.get(events.size() - 1).id + ".txt");
     try {
-      // Step 1: Create a temporary file
-      Path tempFile;
-
-      tempFile = Files.createTempFile(store.name, ".txt");
-
-      System.out.println("Temporary file created at: " + tempFile.toString());
-
-      // Step 2: Write data to the temporary file
-      String content =
-          "Store created. [ name ="
-              + store.name
-              + " ] [ items on stock ="
-              + store.quantityProductsInStock
-              + "]";
-      Files.write(tempFile, content.getBytes());
-      System.out.println("Data written to temporary file.");
-
-      // Step 3: Optionally, read the data back to verify
-      String readContent = new String(Files.readAllBytes(tempFile));
-      System.out.println("Data read from temporary file: " + readContent);
-
-      // Step 4: Delete the temporary file when done
-      Files.delete(tempFile);
-      System.out.println("Temporary file deleted.");
-
-    } catch (Exception e) {
-      e.printStackTrace();
+      Files.createDirectories(file.getParent());
+      Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to send store changes to the legacy system", e);
     }
+    LOGGER.debugf("Sent %d store changes to the legacy system in %s", events.size(), file);
   }
 }
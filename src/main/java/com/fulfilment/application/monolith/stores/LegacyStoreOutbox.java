@@ -0,0 +1,155 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.stores.StoreResource.StoreCreatedEvent;
+import com.fulfilment.application.monolith.stores.StoreResource.StoreUpdatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Transactional outbox towards the {@link LegacyStoreManagerGateway}. Store changes are recorded in
+ * the same transaction as the change itself and delivered later, in batches, by a background
+ * dispatcher, so the legacy I/O never runs on the request thread. Only one instance dispatches at a
+ * time.
+ */
+@ApplicationScoped
+public class LegacyStoreOutbox {
+
+  private static final Logger LOGGER = Logger.getLogger(LegacyStoreOutbox.class.getName());
+
+  // "legacy", the key of the advisory lock held while dispatching
+  private static final long DISPATCH_LOCK = 0x6c6567616379L;
+
+  @Inject LegacyStoreManagerGateway legacyStoreManagerGateway;
+
+  @ConfigProperty(name = "legacy.outbox.batch-size", defaultValue = "500")
+  int batchSize;
+
+  @ConfigProperty(name = "legacy.outbox.initial-backoff", defaultValue = "1s")
+  Duration initialBackoff;
+
+  @ConfigProperty(name = "legacy.outbox.max-backoff", defaultValue = "5m")
+  Duration maxBackoff;
+
+  @Inject MeterRegistry registry;
+
+  private final AtomicLong pending = new AtomicLong();
+  private Timer publishTimer;
+  private Counter delivered;
+  private Counter failed;
+
+  @PostConstruct
+  void registerMetrics() {
+    registry.gauge("legacy.outbox.pending", pending);
+    publishTimer = registry.timer("legacy.outbox.publish");
+    delivered = registry.counter("legacy.outbox.events", "outcome", "delivered");
+    failed = registry.counter("legacy.outbox.events", "outcome", "failed");
+  }
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void onStoreCreated(@Observes StoreCreatedEvent event) {
+    new StoreOutboxEvent(StoreOutboxEvent.Type.CREATED, event.store).persist();
+  }
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void onStoreUpdated(@Observes StoreUpdatedEvent event) {
+    new StoreOutboxEvent(StoreOutboxEvent.Type.UPDATED, event.store).persist();
+  }
+
+  @Scheduled(
+      every = "${legacy.outbox.interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void dispatchPending() {
+    // keep draining while full batches come back, so a backlog is cleared in a single run
+    int dispatched;
+    do {
+      dispatched = dispatchBatch();
+    } while (dispatched == batchSize);
+    pending.set(QuarkusTransaction.requiringNew().call(() -> StoreOutboxEvent.count()));
+  }
+
+  /** Delivers the next batch of pending events and returns how many were picked up. */
+  int dispatchBatch() {
+    LocalDateTime now = LocalDateTime.now();
+    // picked, sent and settled in one transaction holding the dispatch lock, so instances take
+    // turns and never send the same events or a store's events out of order
+    return QuarkusTransaction.requiringNew().call(() -> lockDispatch() ? dispatch(now) : 0);
+  }
+
+  private int dispatch(LocalDateTime now) {
+    List<StoreOutboxEvent> batch = nextBatch(now);
+    if (batch.isEmpty()) {
+      return 0;
+    }
+
+    List<Long> ids = new ArrayList<>(batch.size());
+    int attempts = 0;
+    for (StoreOutboxEvent event : batch) {
+      ids.add(event.id);
+      attempts = Math.max(attempts, event.attempts);
+    }
+
+    try {
+      publishTimer.record(() -> legacyStoreManagerGateway.publish(batch));
+    } catch (RuntimeException e) {
+      failed.increment(batch.size());
+      LocalDateTime retryAt = now.plus(backoff(attempts + 1));
+      LOGGER.warnf(
+          "Failed to send %d store changes to the legacy system, retrying at %s: %s",
+          batch.size(), retryAt, e.getMessage());
+      StoreOutboxEvent.update(
+          "attempts = attempts + 1, nextAttemptAt = :retryAt where id in :ids",
+          Parameters.with("retryAt", retryAt).and("ids", ids));
+      return 0;
+    }
+
+    StoreOutboxEvent.delete("id in ?1", ids);
+    delivered.increment(batch.size());
+    return batch.size();
+  }
+
+  /** Takes the dispatch lock until the transaction ends, false when another instance holds it. */
+  private boolean lockDispatch() {
+    return (Boolean)
+        StoreOutboxEvent.getEntityManager()
+            .createNativeQuery("select pg_try_advisory_xact_lock(?1)")
+            .setParameter(1, DISPATCH_LOCK)
+            .getSingleResult();
+  }
+
+  /**
+   * Oldest-first pending events that are due. Stores with an event still backing off are left out
+   * entirely, so a store's changes always reach the legacy system in the order they were made,
+   * while the other stores keep being served.
+   */
+  private List<StoreOutboxEvent> nextBatch(LocalDateTime now) {
+    return StoreOutboxEvent.<StoreOutboxEvent>find(
+            "from StoreOutboxEvent e where (e.nextAttemptAt is null or e.nextAttemptAt <= :now)"
+                + " and not exists (select 1 from StoreOutboxEvent b"
+                + " where b.storeId = e.storeId and b.nextAttemptAt > :now)"
+                + " order by e.id",
+            Parameters.with("now", now))
+        .page(0, batchSize)
+        .list();
+  }
+
+  Duration backoff(int attempts) {
+    Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+    return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+  }
+}
@@ -0,0 +1,49 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/** A Store change waiting to be delivered to the legacy store manager. */
+@Entity
+@Table(
+    name = "store_outbox",
+    indexes = @Index(name = "store_outbox_store_idx", columnList = "storeId"))
+public class StoreOutboxEvent extends PanacheEntity {
+
+  public enum Type {
+    CREATED,
+    UPDATED
+  }
+
+  public Long storeId;
+
+  @Enumerated(EnumType.STRING)
+  public Type type;
+
+  // snapshot of the store as committed, the store may change again before dispatch
+  public String name;
+
+  public int quantityProductsInStock;
+
+  public LocalDateTime createdAt;
+
+  public int attempts;
+
+  // set after a failed delivery, the event (and later ones of the same store) wait until then
+  public LocalDateTime nextAttemptAt;
+
+  public StoreOutboxEvent() {}
+
+  public StoreOutboxEvent(Type type, Store store) {
+    this.storeId = store.id;
+    this.type = type;
+    this.name = store.name;
+    this.quantityProductsInStock = store.quantityProductsInStock;
+    this.createdAt = LocalDateTime.now();
+  }
+}
@@ -1,8 +1,11 @@
 package com.fulfilment.application.monolith.stores;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.common.Idempotent;
+import com.fulfilment.application.monolith.common.NdjsonStream;
+import com.fulfilment.application.monolith.common.RequestRejectedException;
 import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
@@ -15,15 +18,14 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
-import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.ext.ExceptionMapper;
-import jakarta.ws.rs.ext.Provider;
 import java.util.List;
-import org.jboss.logging.Logger;
+import org.hibernate.jpa.HibernateHints;
 
 @Path("store")
 @ApplicationScoped
+@RunOnVirtualThread
 @Produces("application/json")
 @Consumes("application/json")
 public class StoreResource {
@@ -38,14 +40,41 @@ public class StoreResource {
     public StoreUpdatedEvent(Store store) { this.store = store; }
   }
 
+  public static class StoreDeletedEvent {
+    public final Store store;
+    public StoreDeletedEvent(Store store) { this.store = store; }
+  }
+
+  public static class StockDelta {
+    public int delta;
+  }
+
+  static final int MAX_PAGE_SIZE = 1000;
+
   @Inject Event<StoreCreatedEvent> storeCreatedEvent;
   @Inject Event<StoreUpdatedEvent> storeUpdatedEvent;
+  @Inject Event<StoreDeletedEvent> storeDeletedEvent;
+  @Inject ObjectMapper objectMapper;
+  @Inject StoreStockCounters stockCounters;
 
-  private static final Logger LOGGER = Logger.getLogger(StoreResource.class.getName());
+  @GET
+  public List<Store> get(@QueryParam("limit") Integer limit, @QueryParam("after") Long after) {
+    if (limit == null) {
+      return Store.findAll(Sort.by("name")).withHint(HibernateHints.HINT_CACHEABLE, true).list();
+    }
+    if (limit < 1) {
+      throw new RequestRejectedException("Invalid page size: " + limit, 400);
+    }
+    return Store.find("id > ?1", Sort.by("id"), after == null ? 0L : after)
+        .page(0, Math.min(limit, MAX_PAGE_SIZE))
+        .list();
+  }
 
   @GET
-  public List<Store> get() {
-    return Store.listAll(Sort.by("name"));
+  @Path("stream")
+  @Produces(NdjsonStream.MEDIA_TYPE)
+  public Response stream() {
+    return NdjsonStream.of(objectMapper, "from Store order by id", Store.class);
   }
 
   @GET
@@ -53,16 +82,17 @@ public class StoreResource {
   public Store getSingle(Long id) {
     Store entity = Store.findById(id);
     if (entity == null) {
-      throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+      throw new RequestRejectedException("Store with id of " + id + " does not exist.", 404);
     }
     return entity;
   }
 
   @POST
+  @Idempotent
   @Transactional
   public Response create(Store store) {
     if (store.id != null) {
-      throw new WebApplicationException("Id was invalidly set on request.", 422);
+      throw new RequestRejectedException("Id was invalidly set on request.", 422);
     }
 
     store.persist();
@@ -72,18 +102,37 @@ public class StoreResource {
     return Response.ok(store).status(201).build();
   }
 
+  /**
+   * Adds to the stock of a store. The delta is accepted once logged and reaches the store, and the
+   * legacy system, with the next flush, added up with the other deltas of the store.
+   */
+  @POST
+  @Path("{id}/stock")
+  public Response adjustStock(Long id, StockDelta stockDelta) {
+    if (stockDelta == null) {
+      throw new RequestRejectedException("Stock delta was not set on request.", 422);
+    }
+    if (Store.findById(id) == null) {
+      throw new RequestRejectedException("Store with id of " + id + " does not exist.", 404);
+    }
+
+    stockCounters.add(id, stockDelta.delta);
+
+    return Response.accepted().build();
+  }
+
   @PUT
   @Path("{id}")
   @Transactional
   public Store update(Long id, Store updatedStore) {
     if (updatedStore.name == null) {
-      throw new WebApplicationException("Store Name was not set on request.", 422);
+      throw new RequestRejectedException("Store Name was not set on request.", 422);
     }
 
     Store entity = Store.findById(id);
 
     if (entity == null) {
-      throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+      throw new RequestRejectedException("Store with id of " + id + " does not exist.", 404);
     }
 
     entity.name = updatedStore.name;
@@ -99,13 +148,13 @@ public class StoreResource {
   @Transactional
   public Store patch(Long id, Store updatedStore) {
     if (updatedStore.name == null) {
-      throw new WebApplicationException("Store Name was not set on request.", 422);
+      throw new RequestRejectedException("Store Name was not set on request.", 422);
     }
 
     Store entity = Store.findById(id);
 
     if (entity == null) {
-      throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+      throw new RequestRejectedException("Store with id of " + id + " does not exist.", 404);
     }
 
     if (entity.name != null) {
@@ -127,35 +176,15 @@ public class StoreResource {
   public Response delete(Long id) {
     Store entity = Store.findById(id);
     if (entity == null) {
-      throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+      throw new RequestRejectedException("Store with id of " + id + " does not exist.", 404);
     }
     entity.delete();
-    return Response.status(204).build();
-  }
-
-  @Provider
-  public static class ErrorMapper implements ExceptionMapper<Exception> {
+    // deleted now rather than at commit, after any assignment holding the store, so releasing its
+    // assignments finds that one too
+    Store.flush();
 
-    @Inject ObjectMapper objectMapper;
+    storeDeletedEvent.fire(new StoreDeletedEvent(entity));
 
-    @Override
-    public Response toResponse(Exception exception) {
-      LOGGER.error("Failed to handle request", exception);
-
-      int code = 500;
-      if (exception instanceof WebApplicationException) {
-        code = ((WebApplicationException) exception).getResponse().getStatus();
-      }
-
-      ObjectNode exceptionJson = objectMapper.createObjectNode();
-      exceptionJson.put("exceptionType", exception.getClass().getName());
-      exceptionJson.put("code", code);
-
-      if (exception.getMessage() != null) {
-        exceptionJson.put("error", exception.getMessage());
-      }
-
-      return Response.status(code).entity(exceptionJson).build();
-    }
+    return Response.status(204).build();
   }
 }
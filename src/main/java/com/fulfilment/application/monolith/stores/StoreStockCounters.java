@@ -0,0 +1,290 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.common.RequestRejectedException;
+import com.fulfilment.application.monolith.stores.StoreResource.StoreUpdatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.Startup;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+import org.hibernate.query.NativeQuery;
+import org.jboss.logging.Logger;
+
+/**
+ * Stock deltas of stores, added up in memory per store and applied to the store table by a
+ * background flush, one statement per batch of stores. A delta is appended to the {@link
+ * StoreStockLog} before it is accepted, so the deltas not yet flushed are replayed after a crash.
+ * Every flush records one update per changed store, which the legacy outbox and the change feed
+ * pick up, rather than one per delta. A store the database refuses to update is left out of the
+ * flush and its delta carried over to the next one, so it holds up neither the other stores nor the
+ * release of the log.
+ */
+@Startup
+@ApplicationScoped
+public class StoreStockCounters {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreStockCounters.class.getName());
+
+  private static final String APPLY =
+      "update store s set quantityProductsInStock = s.quantityProductsInStock + d.delta"
+          + " from unnest(cast(?1 as bigint[]), cast(?2 as bigint[])) as d (id, delta)"
+          + " where s.id = d.id";
+  private static final String COMMIT_SEGMENT =
+      "insert into store_stock_log (instance, segment) values (?1, ?2)"
+          + " on conflict (instance) do update set segment = excluded.segment";
+
+  @ConfigProperty(name = "stores.stock.log-directory")
+  Path directory;
+
+  @ConfigProperty(name = "stores.stock.batch-size", defaultValue = "1000")
+  int batchSize;
+
+  @Inject Event<StoreUpdatedEvent> storeUpdatedEvent;
+  @Inject MeterRegistry registry;
+
+  // deltas are added under the read lock, so many at once; a flush takes the write lock only to
+  // swap the counters and the log segment, which then hold exactly the same deltas
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private volatile ConcurrentHashMap<Long, AtomicLong> pending = new ConcurrentHashMap<>();
+  private StoreStockLog log;
+  private String logKey;
+  private Timer flushTimer;
+  private Counter flushedStores;
+
+  @PostConstruct
+  void open() {
+    log = new StoreStockLog(directory);
+    logKey = log.instanceId();
+    registry.gauge("stores.stock.pending", this, counters -> counters.pending.size());
+    flushTimer = registry.timer("stores.stock.flush");
+    flushedStores = registry.counter("stores.stock.flushed");
+    replay();
+  }
+
+  /** Applies the deltas a crash left in the log, before any new delta is flushed. */
+  private void replay() {
+    long upTo = log.segment() - 1;
+    List<?> rows =
+        QuarkusTransaction.requiringNew()
+            .call(
+                () ->
+                    Store.getEntityManager()
+                        .createNativeQuery(
+                            "select segment from store_stock_log where instance = ?1")
+                        .setParameter(1, logKey)
+                        .getResultList());
+    long committed = rows.isEmpty() ? 0 : ((Number) rows.get(0)).longValue();
+    // segments committed before the crash only missed being deleted
+    log.release(committed);
+    if (upTo <= committed) {
+      return;
+    }
+    Map<Long, Long> deltas = log.read(upTo);
+    if (!deltas.isEmpty()) {
+      int applied = applyAccepted(deltas, upTo);
+      LOGGER.infof("Replayed the stock deltas of %d stores from %s", applied, directory);
+    }
+    log.release(upTo);
+  }
+
+  /**
+   * Accepts a stock delta of a store, applied to the store table by the next flush. The deltas a
+   * store adds up to until then must stay within the range of the stock column.
+   */
+  public void add(long storeId, int delta) {
+    lock.readLock().lock();
+    try {
+      AtomicLong sum = pending.computeIfAbsent(storeId, id -> new AtomicLong());
+      long total = sum.addAndGet(delta);
+      if (total < Integer.MIN_VALUE || total > Integer.MAX_VALUE) {
+        sum.addAndGet(-delta);
+        throw new RequestRejectedException(
+            "Stock delta of store " + storeId + " exceeds what can be applied at once.", 422);
+      }
+      try {
+        log.append(storeId, delta);
+      } catch (RuntimeException e) {
+        sum.addAndGet(-delta);
+        throw e;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Scheduled(
+      every = "${stores.stock.flush-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  synchronized void flush() {
+    Map<Long, AtomicLong> counters;
+    long segment;
+    lock.writeLock().lock();
+    try {
+      if (pending.isEmpty()) {
+        return;
+      }
+      counters = pending;
+      pending = new ConcurrentHashMap<>();
+      segment = log.rotate();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    Map<Long, Long> deltas = new HashMap<>(counters.size() * 2);
+    counters.forEach((storeId, counter) -> deltas.put(storeId, counter.get()));
+    int applied;
+    try {
+      applied = flushTimer.record(() -> applyAccepted(deltas, segment));
+    } catch (RuntimeException e) {
+      // the deltas go back to the next flush, their segments stay in the log until then
+      deltas.forEach(
+          (storeId, delta) ->
+              pending.computeIfAbsent(storeId, id -> new AtomicLong()).addAndGet(delta));
+      LOGGER.warnf(
+          "Failed to flush the stock deltas of %d stores, retrying: %s",
+          deltas.size(), e.getMessage());
+      return;
+    }
+    log.release(segment);
+    flushedStores.increment(applied);
+  }
+
+  void close(@Observes ShutdownEvent event) {
+    // best effort, whatever is not flushed is replayed from the log on the next start
+    try {
+      flush();
+    } finally {
+      log.close();
+    }
+  }
+
+  /**
+   * Applies the deltas up to the segment and commits it, returning how many stores were updated.
+   * When the database rejects the update of some stores, they are found by applying halves of the
+   * deltas in transactions that are rolled back, and their deltas are carried over to the current
+   * segment and the next flush before the others are applied. Any other failure is thrown.
+   */
+  private int applyAccepted(Map<Long, Long> deltas, long segment) {
+    List<Long> storeIds = new ArrayList<>(deltas.keySet());
+    try {
+      QuarkusTransaction.requiringNew().run(() -> apply(deltas, storeIds, segment));
+      return storeIds.size();
+    } catch (RuntimeException e) {
+      if (!isRejection(e)) {
+        throw e;
+      }
+    }
+    Set<Long> rejected = new HashSet<>();
+    findRejected(deltas, storeIds, rejected);
+    for (Long storeId : rejected) {
+      long delta = deltas.get(storeId);
+      LOGGER.errorf("The stock delta %d of store %d was rejected, retrying", delta, storeId);
+      carryOver(storeId, delta);
+    }
+    storeIds.removeAll(rejected);
+    QuarkusTransaction.requiringNew().run(() -> apply(deltas, storeIds, segment));
+    return storeIds.size();
+  }
+
+  private void findRejected(Map<Long, Long> deltas, List<Long> storeIds, Set<Long> rejected) {
+    try {
+      QuarkusTransaction.requiringNew()
+          .run(
+              () -> {
+                apply(deltas, storeIds, null);
+                QuarkusTransaction.setRollbackOnly();
+              });
+    } catch (RuntimeException e) {
+      if (!isRejection(e)) {
+        throw e;
+      }
+      if (storeIds.size() == 1) {
+        rejected.add(storeIds.get(0));
+        return;
+      }
+      int half = storeIds.size() / 2;
+      findRejected(deltas, storeIds.subList(0, half), rejected);
+      findRejected(deltas, storeIds.subList(half, storeIds.size()), rejected);
+    }
+  }
+
+  private static boolean isRejection(RuntimeException e) {
+    // refused for its values, such as a stock out of the range of the column, not for a failure of
+    // the database
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException || cause instanceof DataException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Moves a rejected delta to the current segment, so the segment it came from can go. */
+  private void carryOver(long storeId, long delta) {
+    lock.readLock().lock();
+    try {
+      for (long remaining = delta; remaining != 0; ) {
+        int part = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, remaining));
+        log.append(storeId, part);
+        remaining -= part;
+      }
+      pending.computeIfAbsent(storeId, id -> new AtomicLong()).addAndGet(delta);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Applies the deltas of the stores, committing the segment unless it is null. */
+  private void apply(Map<Long, Long> deltas, List<Long> storeIds, Long segment) {
+    for (int from = 0; from < storeIds.size(); from += batchSize) {
+      List<Long> batch = storeIds.subList(from, Math.min(from + batchSize, storeIds.size()));
+      Long[] ids = batch.toArray(Long[]::new);
+      Long[] sums = new Long[ids.length];
+      for (int i = 0; i < ids.length; i++) {
+        sums[i] = deltas.get(ids[i]);
+      }
+      Store.getEntityManager()
+          .createNativeQuery(APPLY)
+          .unwrap(NativeQuery.class)
+          .addSynchronizedEntityClass(Store.class)
+          .setParameter(1, ids)
+          .setParameter(2, sums)
+          .executeUpdate();
+      // one change per store and flush, however many deltas it added up
+      for (Store store : Store.<Store>list("id in ?1", batch)) {
+        storeUpdatedEvent.fire(new StoreUpdatedEvent(store));
+      }
+    }
+    if (segment == null) {
+      return;
+    }
+    Store.getEntityManager()
+        .createNativeQuery(COMMIT_SEGMENT)
+        .unwrap(NativeQuery.class)
+        .addSynchronizedQuerySpace("store_stock_log")
+        .setParameter(1, logKey)
+        .setParameter(2, segment)
+        .executeUpdate();
+  }
+}
@@ -0,0 +1,173 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Write-ahead log of the store stock deltas not yet applied to the database. Deltas are appended to
+ * the current segment file, one fixed-size record each, and reach the operating system before
+ * {@link #append} returns, so they survive a crash of the process; a segment is forced to disk when
+ * the log moves on to the next one. Segments are deleted once their deltas are committed.
+ *
+ * <p>The directory is identified by an id generated when the log is first opened in it and stored
+ * next to the segments. Its path identifies nothing, every container may use the same one.
+ */
+final class StoreStockLog {
+
+  private static final String PREFIX = "store-stock-";
+  private static final String SUFFIX = ".log";
+  private static final int RECORD_SIZE = Long.BYTES + Integer.BYTES;
+  private static final String INSTANCE_ID = "instance-id";
+
+  private final Path directory;
+  private final String instanceId;
+  private long segment;
+  private FileChannel channel;
+
+  StoreStockLog(Path directory) {
+    this.directory = directory;
+    try {
+      Files.createDirectories(directory);
+      this.instanceId = readOrCreateInstanceId();
+      // left over segments are kept for replay, new deltas go to a segment after them
+      List<Long> existing = segments();
+      this.segment = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+      this.channel = open(segment);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open the store stock log in " + directory, e);
+    }
+  }
+
+  /** Appends a delta to the current segment; safe to call from many threads at once. */
+  void append(long storeId, int delta) {
+    ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).putLong(storeId).putInt(delta).flip();
+    try {
+      // the channel is opened for appending, so concurrent writes never overlap
+      channel.write(record);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to log the stock delta of store " + storeId, e);
+    }
+  }
+
+  /**
+   * Moves on to a new segment and returns the number of the one it closed. The caller makes sure
+   * nothing is appended meanwhile, so the closed segments hold exactly the deltas accumulated until
+   * now.
+   */
+  long rotate() {
+    FileChannel closed = channel;
+    try {
+      channel = open(segment + 1);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open the next store stock log segment", e);
+    }
+    segment++;
+    try (closed) {
+      closed.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write the store stock log to disk", e);
+    }
+    return segment - 1;
+  }
+
+  /** The sum of the deltas per store of all segments up to and including the given one. */
+  Map<Long, Long> read(long upTo) {
+    Map<Long, Long> deltas = new HashMap<>();
+    try {
+      for (long number : segments()) {
+        if (number > upTo) {
+          break;
+        }
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(file(number)));
+        // a record torn by a crash was never accepted, it is skipped
+        while (records.remaining() >= RECORD_SIZE) {
+          deltas.merge(records.getLong(), (long) records.getInt(), Long::sum);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read the store stock log", e);
+    }
+    return deltas;
+  }
+
+  /** Deletes the segments up to and including the given one, once their deltas are committed. */
+  void release(long upTo) {
+    try {
+      for (long number : segments()) {
+        if (number <= upTo) {
+          Files.deleteIfExists(file(number));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to delete committed store stock log segments", e);
+    }
+  }
+
+  /** Identifies the log, and the instance writing it, among those sharing the database. */
+  String instanceId() {
+    return instanceId;
+  }
+
+  /** The number of the segment deltas are currently appended to. */
+  long segment() {
+    return segment;
+  }
+
+  void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to close the store stock log", e);
+    }
+  }
+
+  private FileChannel open(long number) throws IOException {
+    return FileChannel.open(
+        file(number),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+  }
+
+  private String readOrCreateInstanceId() throws IOException {
+    Path file = directory.resolve(INSTANCE_ID);
+    if (Files.exists(file)) {
+      return Files.readString(file).trim();
+    }
+    // written aside and moved in place, so a crash never leaves an empty id behind
+    Path written = directory.resolve(INSTANCE_ID + ".tmp");
+    String id = UUID.randomUUID().toString();
+    Files.writeString(written, id);
+    Files.move(written, file, StandardCopyOption.ATOMIC_MOVE);
+    return id;
+  }
+
+  private Path file(long number) {
+    return directory.resolve(PREFIX + number + SUFFIX);
+  }
+
+  private List<Long> segments() throws IOException {
+    List<Long> numbers = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        numbers.add(
+            Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+      }
+    }
+    numbers.sort(null);
+    return numbers;
+  }
+}
@@ -6,8 +6,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 
+/** An active warehouse. Archived and replaced ones move to {@link DbWarehouseHistory}. */
 @Entity
 @Table(name = "warehouse")
 @Cacheable
@@ -25,18 +27,20 @@ public class DbWarehouse {
 
   public LocalDateTime createdAt;
 
-  public LocalDateTime archivedAt;
+  // guards edits through the entity against concurrent changes, stock adjustments bump it
+  @Version public int version;
 
   public DbWarehouse() {}
 
   public Warehouse toWarehouse() {
     var warehouse = new Warehouse();
+    warehouse.id = this.id;
     warehouse.businessUnitCode = this.businessUnitCode;
     warehouse.location = this.location;
     warehouse.capacity = this.capacity;
     warehouse.stock = this.stock;
     warehouse.createdAt = this.createdAt;
-    warehouse.archivedAt = this.archivedAt;
+    warehouse.version = this.version;
     return warehouse;
   }
 }
@@ -0,0 +1,46 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * An archived or replaced warehouse, moved out of the active {@code warehouse} table under the id
+ * it had there. The index serves the lineage of a business unit code in creation order.
+ */
+@Entity
+@Table(
+    name = "warehouse_history",
+    indexes =
+        @Index(name = "warehouse_history_bu_code_idx", columnList = "businessUnitCode, createdAt"))
+public class DbWarehouseHistory {
+
+  @Id public Long id;
+
+  public String businessUnitCode;
+
+  public String location;
+
+  public Integer capacity;
+
+  public Integer stock;
+
+  public LocalDateTime createdAt;
+
+  public LocalDateTime archivedAt;
+
+  public Warehouse toWarehouse() {
+    var warehouse = new Warehouse();
+    warehouse.id = this.id;
+    warehouse.businessUnitCode = this.businessUnitCode;
+    warehouse.location = this.location;
+    warehouse.capacity = this.capacity;
+    warehouse.stock = this.stock;
+    warehouse.createdAt = this.createdAt;
+    warehouse.archivedAt = this.archivedAt;
+    return warehouse;
+  }
+}
@@ -0,0 +1,199 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.changes.ChangeEvent;
+import com.fulfilment.application.monolith.changes.ChangeFeed;
+import com.fulfilment.application.monolith.changes.ChangeRecorder;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowIterator;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Reads and adjusts warehouses through the reactive Postgres client, on the event loop and without
+ * holding a JDBC connection. Writes through here bypass Hibernate, so they invalidate what {@link
+ * WarehouseRepository} caches themselves: the changed entity and, as the cached query results hold
+ * projected rows with the stock in them, every cached warehouse query. They also record their
+ * changes for the change feed in their own transaction, as there is no JTA transaction for the
+ * published change events to be recorded in.
+ */
+@ApplicationScoped
+public class ReactiveWarehouseRepository implements ReactiveWarehouseStore {
+
+  // in the order of WarehouseRowMapper#map
+  private static final String ROW =
+      "select id, businessUnitCode, location, capacity, stock, createdAt, version from warehouse";
+
+  private static final String[] WAREHOUSE_QUERY_SPACES = {"warehouse"};
+
+  @Inject PgPool client;
+  @Inject Vertx vertx;
+  @Inject SessionFactory sessionFactory;
+  @Inject ChangeRecorder changeRecorder;
+  @Inject ChangeFeed changeFeed;
+
+  @Override
+  public Uni<List<Warehouse>> getAll() {
+    return listActive(WarehouseRowMapper.WAREHOUSE);
+  }
+
+  /** Every active warehouse, built by {@code mapper} from its row. */
+  public <T> Uni<List<T>> listActive(WarehouseRowMapper<T> mapper) {
+    return client.query(ROW).execute().map(rows -> mapAll(rows, mapper));
+  }
+
+  /** Keyset page of active warehouses, see {@link WarehouseRepository#findActivePage}. */
+  public <T> Uni<List<T>> findActivePage(Long afterId, int limit, WarehouseRowMapper<T> mapper) {
+    return client
+        .preparedQuery(ROW + " where id > $1 order by id limit $2")
+        .execute(Tuple.of(afterId == null ? 0L : afterId, limit))
+        .map(rows -> mapAll(rows, mapper));
+  }
+
+  /** Emits the active warehouse with the id built by {@code mapper}, or null. */
+  public <T> Uni<T> findActiveById(long id, WarehouseRowMapper<T> mapper) {
+    return client
+        .preparedQuery(ROW + " where id = $1")
+        .execute(Tuple.of(id))
+        .map(rows -> mapFirst(rows, mapper));
+  }
+
+  @Override
+  public Uni<Warehouse> findByBusinessUnitCode(String buCode) {
+    return client
+        .preparedQuery(ROW + " where businessUnitCode = $1")
+        .execute(Tuple.of(buCode))
+        .map(rows -> mapFirst(rows, WarehouseRowMapper.WAREHOUSE));
+  }
+
+  @Override
+  public Uni<Integer> adjustStock(String buCode, int delta) {
+    // as Hibernate does around its own writes: no query results are cached while the update runs,
+    // and the ones cached before it are stale once it committed
+    return onWorker(() -> invalidateQueries(true))
+        .chain(() -> update(buCode, delta))
+        .call(
+            row ->
+                onWorker(
+                    () -> {
+                      invalidateQueries(false);
+                      if (row != null) {
+                        // the cached entity still holds the old stock and version
+                        sessionFactory.getCache().evict(DbWarehouse.class, row.getLong(0));
+                      }
+                    }))
+        .onFailure()
+        .call(() -> onWorker(() -> invalidateQueries(false)))
+        .map(
+            row -> {
+              if (row == null) {
+                return null;
+              }
+              changeFeed.requestSequencing();
+              return row.getInteger(4);
+            });
+  }
+
+  /**
+   * Runs the second-level cache work on a worker thread, as Hibernate expects to be called from one,
+   * and continues on the event loop.
+   */
+  private Uni<Void> onWorker(Runnable work) {
+    return vertx.executeBlocking(
+        () -> {
+          work.run();
+          return null;
+        },
+        false);
+  }
+
+  private Uni<Row> update(String buCode, int delta) {
+    // the same single conditional update as the blocking store, recorded in the change feed in the
+    // same transaction
+    return client.withTransaction(
+        connection ->
+            connection
+                .preparedQuery(
+                    "update warehouse set stock = stock + $1, version = version + 1"
+                        + " where businessUnitCode = $2"
+                        + " and stock + $1 >= 0 and stock + $1 <= capacity"
+                        + " returning id, businessUnitCode, location, capacity, stock,"
+                        + " createdAt, version")
+                .execute(Tuple.of(delta, buCode))
+                .chain(
+                    rows -> {
+                      Row row = first(rows);
+                      if (row == null) {
+                        return Uni.createFrom().nullItem();
+                      }
+                      Warehouse warehouse = map(row, WarehouseRowMapper.WAREHOUSE);
+                      return changeRecorder
+                          .record(
+                              connection,
+                              ChangeEvent.EntityType.WAREHOUSE,
+                              buCode,
+                              ChangeEvent.Type.UPDATED,
+                              warehouse)
+                          .replaceWith(row);
+                    }));
+  }
+
+  /**
+   * Marks the warehouse table as written in the timestamps cache, which is all the cached query
+   * results are checked against. Nothing is read or written in the database.
+   */
+  private void invalidateQueries(boolean beforeWrite) {
+    TimestampsCache timestamps =
+        sessionFactory.unwrap(SessionFactoryImplementor.class).getCache().getTimestampsCache();
+    try (StatelessSession session = sessionFactory.openStatelessSession()) {
+      var implementor = (SharedSessionContractImplementor) session;
+      if (beforeWrite) {
+        timestamps.preInvalidate(WAREHOUSE_QUERY_SPACES, implementor);
+      } else {
+        timestamps.invalidate(WAREHOUSE_QUERY_SPACES, implementor);
+      }
+    }
+  }
+
+  private static Row first(RowSet<Row> rows) {
+    RowIterator<Row> iterator = rows.iterator();
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+
+  private static <T> T mapFirst(RowSet<Row> rows, WarehouseRowMapper<T> mapper) {
+    Row row = first(rows);
+    return row == null ? null : map(row, mapper);
+  }
+
+  private static <T> List<T> mapAll(RowSet<Row> rows, WarehouseRowMapper<T> mapper) {
+    List<T> results = new ArrayList<>(rows.size());
+    for (Row row : rows) {
+      results.add(map(row, mapper));
+    }
+    return results;
+  }
+
+  private static <T> T map(Row row, WarehouseRowMapper<T> mapper) {
+    return mapper.map(
+        row.getLong(0),
+        row.getString(1),
+        row.getString(2),
+        row.getInteger(3),
+        row.getInteger(4),
+        row.getLocalDateTime(5),
+        row.getInteger(6));
+  }
+}
@@ -1,64 +1,450 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.annotation.Timed;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.query.Query;
 
 @ApplicationScoped
+@Timed(value = "warehouse.store", description = "Warehouse persistence calls")
 public class WarehouseRepository implements WarehouseStore, PanacheRepository<DbWarehouse> {
 
+  static final String ACTIVE_BU_CODE_INDEX = "warehouse_active_bu_code_uidx";
+
+  // keeps IN lists well below the bind parameter limit of the driver
+  private static final int IN_CLAUSE_CHUNK = 1000;
+
+  private static final String ADD_LOCATIONS =
+      "insert into location_usage (location, activeWarehouses, totalCapacity)"
+          + " select location, 0, 0 from unnest(cast(?1 as varchar[])) as l (location)"
+          + " order by location collate \"C\" on conflict (location) do nothing";
+
+  private static final String LOCK_LOCATIONS =
+      "select location from location_usage where location in (?1)"
+          + " order by location collate \"C\" for update";
+
+  private static final String ADD_USAGE =
+      "insert into location_usage (location, activeWarehouses, totalCapacity)"
+          + " values (?1, ?2, ?3) on conflict (location) do update"
+          + " set activeWarehouses = location_usage.activeWarehouses + excluded.activeWarehouses,"
+          + " totalCapacity = location_usage.totalCapacity + excluded.totalCapacity";
+
+  @ConfigProperty(name = "quarkus.hibernate-orm.jdbc.statement-batch-size", defaultValue = "100")
+  int batchSize;
+
   @Override
   public List<Warehouse> getAll() {
-    return this.find("archivedAt IS NULL").stream().map(DbWarehouse::toWarehouse).toList();
+    return listActive(WarehouseRowMapper.WAREHOUSE);
+  }
+
+  /** Every active warehouse, built by {@code mapper} from its row. */
+  public <T> List<T> listActive(WarehouseRowMapper<T> mapper) {
+    // the query cache holds the projected rows themselves, not ids to resolve one by one
+    return project("", mapper).setCacheable(true).getResultList();
+  }
+
+  /** Keyset page of active warehouses ordered by id, starting right after {@code afterId}. */
+  public <T> List<T> findActivePage(Long afterId, int limit, WarehouseRowMapper<T> mapper) {
+    return project("where w.id > ?1 order by w.id", mapper)
+        .setParameter(1, afterId == null ? 0L : afterId)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  /** The active warehouse with the id built by {@code mapper} from its row, or null. */
+  public <T> T findActiveById(long id, WarehouseRowMapper<T> mapper) {
+    return project("where w.id = ?1", mapper).setParameter(1, id).setCacheable(true).uniqueResult();
   }
 
   @Override
   @Transactional
   public void create(Warehouse warehouse) {
-    DbWarehouse dbWarehouse = new DbWarehouse();
-    dbWarehouse.businessUnitCode = warehouse.businessUnitCode;
-    dbWarehouse.location = warehouse.location;
-    dbWarehouse.capacity = warehouse.capacity;
-    dbWarehouse.stock = warehouse.stock;
-    dbWarehouse.createdAt = warehouse.createdAt;
-    dbWarehouse.archivedAt = warehouse.archivedAt;
-    this.persist(dbWarehouse);
+    DbWarehouse dbWarehouse = toDbWarehouse(warehouse);
+    try {
+      // flushed right away so the unique index on active codes rejects duplicates here
+      this.persistAndFlush(dbWarehouse);
+    } catch (PersistenceException e) {
+      if (violates(e, ACTIVE_BU_CODE_INDEX)) {
+        throw new DuplicateBusinessUnitCodeException(warehouse.businessUnitCode, e);
+      }
+      throw e;
+    }
+    addUsage(warehouse.location, 1, capacityOf(warehouse));
   }
 
   @Override
   @Transactional
-  public void update(Warehouse warehouse) {
-    DbWarehouse existing =
-        this.find("businessUnitCode = ?1 and archivedAt IS NULL", warehouse.businessUnitCode)
-            .firstResult();
-    if (existing != null) {
-      existing.location = warehouse.location;
-      existing.capacity = warehouse.capacity;
-      existing.stock = warehouse.stock;
-      existing.archivedAt = warehouse.archivedAt;
-      existing.createdAt = warehouse.createdAt;
+  public void createAll(List<Warehouse> warehouses) {
+    EntityManager entityManager = getEntityManager();
+    try {
+      for (int i = 0; i < warehouses.size(); i++) {
+        entityManager.persist(toDbWarehouse(warehouses.get(i)));
+        // one JDBC batch per flush, cleared so the persistence context does not grow
+        if ((i + 1) % batchSize == 0) {
+          entityManager.flush();
+          entityManager.clear();
+        }
+      }
+      entityManager.flush();
+      entityManager.clear();
+    } catch (PersistenceException e) {
+      if (violates(e, ACTIVE_BU_CODE_INDEX)) {
+        throw new DuplicateBusinessUnitCodeException(e);
+      }
+      throw e;
+    }
+    // one update per location, in the order the locations were reserved in
+    Map<String, LocationUsage> added = new TreeMap<>();
+    for (Warehouse warehouse : warehouses) {
+      if (warehouse.location != null) {
+        LocationUsage usage =
+            added.computeIfAbsent(
+                warehouse.location, location -> new LocationUsage(location, 0, 0));
+        usage.activeWarehouses++;
+        usage.totalCapacity += capacityOf(warehouse);
+      }
+    }
+    for (LocationUsage usage : added.values()) {
+      addUsage(usage.location, usage.activeWarehouses, usage.totalCapacity);
     }
   }
 
+  @Override
+  @Transactional
+  public void archive(Warehouse warehouse) {
+    // moved and taken off the usage of its location in one statement; the version condition fails
+    // it when the warehouse was adjusted, archived or replaced since it was read
+    int archived =
+        synchronizedQuery(
+                "with archived as (delete from warehouse"
+                    + " where id = ?1 and version = ?2"
+                    + " returning id, businessUnitCode, location, capacity, stock, createdAt),"
+                    + " used as (update location_usage u"
+                    + " set activeWarehouses = u.activeWarehouses - 1,"
+                    + " totalCapacity = u.totalCapacity - coalesce(a.capacity, 0)"
+                    + " from archived a where u.location = a.location)"
+                    + " insert into warehouse_history"
+                    + " (id, businessUnitCode, location, capacity, stock, createdAt, archivedAt)"
+                    + " select id, businessUnitCode, location, capacity, stock, createdAt, ?3"
+                    + " from archived")
+            .setParameter(1, warehouse.id)
+            .setParameter(2, warehouse.version)
+            .setParameter(3, warehouse.archivedAt)
+            .executeUpdate();
+    if (archived == 0) {
+      throw new ConcurrentWarehouseUpdateException(warehouse.businessUnitCode, null);
+    }
+  }
+
+  @Override
+  @Transactional
+  public void archiveAll(List<Warehouse> warehouses) {
+    Long[] ids = new Long[warehouses.size()];
+    Integer[] versions = new Integer[warehouses.size()];
+    LocalDateTime[] archivedAt = new LocalDateTime[warehouses.size()];
+    for (int i = 0; i < warehouses.size(); i++) {
+      Warehouse warehouse = warehouses.get(i);
+      ids[i] = warehouse.id;
+      versions[i] = warehouse.version;
+      archivedAt[i] = warehouse.archivedAt;
+    }
+    // one statement for the whole batch, joining the ids and the versions they must still have
+    int archived =
+        synchronizedQuery(
+                "with requested as (select * from unnest(cast(?1 as bigint[]),"
+                    + " cast(?2 as int[]), cast(?3 as timestamp(6)[]))"
+                    + " as r (id, version, archivedAt)),"
+                    + " archived as (delete from warehouse w using requested r"
+                    + " where w.id = r.id and w.version = r.version"
+                    + " returning w.id, w.businessUnitCode, w.location, w.capacity, w.stock,"
+                    + " w.createdAt, r.archivedAt),"
+                    + " used as (update location_usage u"
+                    + " set activeWarehouses = u.activeWarehouses - a.warehouses,"
+                    + " totalCapacity = u.totalCapacity - a.capacity"
+                    + " from (select location, count(*) as warehouses,"
+                    + " coalesce(sum(capacity), 0) as capacity from archived group by location) a"
+                    + " where u.location = a.location)"
+                    + " insert into warehouse_history"
+                    + " (id, businessUnitCode, location, capacity, stock, createdAt, archivedAt)"
+                    + " select id, businessUnitCode, location, capacity, stock, createdAt,"
+                    + " archivedAt from archived")
+            .setParameter(1, ids)
+            .setParameter(2, versions)
+            .setParameter(3, archivedAt)
+            .executeUpdate();
+    if (archived != warehouses.size()) {
+      throw new ConcurrentWarehouseUpdateException(warehouses.size() - archived);
+    }
+  }
+
+  @Override
+  @Transactional
+  public Integer adjustStock(String buCode, int delta) {
+    // a single conditional update instead of read-modify-write, so concurrent adjustments cannot
+    // lose writes and nothing is locked before the statement runs
+    int updated =
+        this.update(
+            "stock = stock + ?1, version = version + 1 where businessUnitCode = ?2"
+                + " and stock + ?1 >= 0 and stock + ?1 <= capacity",
+            delta,
+            buCode);
+    if (updated == 0) {
+      return null;
+    }
+    // read as a scalar, a managed entity in the persistence context would still hold the old stock
+    return getEntityManager()
+        .createQuery(
+            "select w.stock from DbWarehouse w where w.businessUnitCode = ?1", Integer.class)
+        .setParameter(1, buCode)
+        .getSingleResult();
+  }
+
   @Override
   @Transactional
   public void remove(Warehouse warehouse) {
-    DbWarehouse existing =
-        this.find("businessUnitCode = ?1 and archivedAt IS NULL", warehouse.businessUnitCode)
-            .firstResult();
+    DbWarehouse existing = this.find("businessUnitCode", warehouse.businessUnitCode).firstResult();
     if (existing != null) {
       this.delete(existing);
+      addUsage(existing.location, -1, existing.capacity == null ? 0 : -existing.capacity);
     }
   }
 
   @Override
   public Warehouse findByBusinessUnitCode(String buCode) {
-    return this.find("businessUnitCode = ?1 and archivedAt IS NULL", buCode)
-        .firstResultOptional()
-        .map(DbWarehouse::toWarehouse)
+    // any write to the warehouse table invalidates the cached results
+    return project("where w.businessUnitCode = ?1", WarehouseRowMapper.WAREHOUSE)
+        .setParameter(1, buCode)
+        .setCacheable(true)
+        .uniqueResult();
+  }
+
+  @Override
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void reserveLocations(Collection<String> locations) {
+    // a location without a usage row gets one first, so there is always a row to lock; rows are
+    // taken in the order of Java strings, so two batches sharing locations cannot deadlock
+    List<String> sorted = new ArrayList<>(new TreeSet<>(locations));
+    if (sorted.isEmpty()) {
+      return;
+    }
+    getEntityManager()
+        .createNativeQuery(ADD_LOCATIONS)
+        .unwrap(NativeQuery.class)
+        .addSynchronizedQuerySpace("location_usage")
+        .setParameter(1, sorted.toArray(String[]::new))
+        .executeUpdate();
+    for (int from = 0; from < sorted.size(); from += IN_CLAUSE_CHUNK) {
+      getEntityManager()
+          .createNativeQuery(LOCK_LOCATIONS)
+          .unwrap(NativeQuery.class)
+          .addSynchronizedQuerySpace("location_usage")
+          .setParameter(1, sorted.subList(from, Math.min(from + IN_CLAUSE_CHUNK, sorted.size())))
+          .getResultList();
+    }
+  }
+
+  @Override
+  public LocationUsage getUsageByLocation(String location) {
+    List<Object[]> rows =
+        usageQuery("select activeWarehouses, totalCapacity from location_usage where location = ?1")
+            .setParameter(1, location)
+            .getResultList();
+    if (rows.isEmpty()) {
+      return new LocationUsage(location, 0, 0);
+    }
+    Object[] row = rows.get(0);
+    return new LocationUsage(
+        location, ((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+  }
+
+  @Override
+  public Map<String, LocationUsage> getUsageByLocation() {
+    List<Object[]> rows =
+        usageQuery(
+                "select location, activeWarehouses, totalCapacity from location_usage"
+                    + " where activeWarehouses > 0")
+            .getResultList();
+    Map<String, LocationUsage> usage = new HashMap<>(rows.size() * 2);
+    for (Object[] row : rows) {
+      String location = (String) row[0];
+      usage.put(
+          location,
+          new LocationUsage(
+              location, ((Number) row[1]).longValue(), ((Number) row[2]).longValue()));
+    }
+    return usage;
+  }
+
+  @Override
+  public Map<String, Warehouse> findByBusinessUnitCodes(Collection<String> buCodes) {
+    List<String> codes = new ArrayList<>(buCodes);
+    Map<String, Warehouse> active = new HashMap<>(codes.size() * 2);
+    for (int from = 0; from < codes.size(); from += IN_CLAUSE_CHUNK) {
+      for (Warehouse warehouse :
+          project("where w.businessUnitCode in ?1", WarehouseRowMapper.WAREHOUSE)
+              .setParameter(1, codes.subList(from, Math.min(from + IN_CLAUSE_CHUNK, codes.size())))
+              .getResultList()) {
+        active.put(warehouse.businessUnitCode, warehouse);
+      }
+    }
+    return active;
+  }
+
+  @Override
+  public Set<String> findActiveBusinessUnitCodes(Collection<String> buCodes) {
+    List<String> codes = new ArrayList<>(buCodes);
+    Set<String> active = new HashSet<>();
+    for (int from = 0; from < codes.size(); from += IN_CLAUSE_CHUNK) {
+      active.addAll(
+          getEntityManager()
+              .createQuery(
+                  "select w.businessUnitCode from DbWarehouse w"
+                      + " where w.businessUnitCode in ?1",
+                  String.class)
+              .setParameter(1, codes.subList(from, Math.min(from + IN_CLAUSE_CHUNK, codes.size())))
+              .getResultList());
+    }
+    return active;
+  }
+
+  @Override
+  public List<Warehouse> getHistory(String buCode) {
+    List<Warehouse> history =
+        new ArrayList<>(
+            getEntityManager()
+                .createQuery(
+                    "from DbWarehouseHistory h where h.businessUnitCode = ?1"
+                        + " order by h.createdAt, h.id",
+                    DbWarehouseHistory.class)
+                .setParameter(1, buCode)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(DbWarehouseHistory::toWarehouse)
+                .toList());
+    Warehouse active = findByBusinessUnitCode(buCode);
+    if (active != null) {
+      history.add(active);
+    }
+    return history;
+  }
+
+  @Override
+  public Warehouse findAsOf(String buCode, LocalDateTime asOf) {
+    Warehouse active = findByBusinessUnitCode(buCode);
+    if (active != null && (active.createdAt == null || !active.createdAt.isAfter(asOf))) {
+      return active;
+    }
+    return getEntityManager()
+        .createQuery(
+            "from DbWarehouseHistory h where h.businessUnitCode = ?1"
+                + " and h.createdAt <= ?2 and h.archivedAt > ?2 order by h.createdAt desc",
+            DbWarehouseHistory.class)
+        .setParameter(1, buCode)
+        .setParameter(2, asOf)
+        .setHint(HibernateHints.HINT_READ_ONLY, true)
+        .setMaxResults(1)
+        .getResultStream()
+        .findFirst()
+        .map(DbWarehouseHistory::toWarehouse)
         .orElse(null);
   }
+
+  /**
+   * Selects the columns of {@link WarehouseRowMapper} and maps each row as it is read. The results
+   * are not managed, so there is no entity, snapshot or dirty check behind them.
+   */
+  private <T> Query<T> project(String restriction, WarehouseRowMapper<T> mapper) {
+    return getSession()
+        .createQuery(
+            "select w.id, w.businessUnitCode, w.location, w.capacity, w.stock, w.createdAt,"
+                + " w.version from DbWarehouse w "
+                + restriction,
+            Object[].class)
+        .setTupleTransformer(
+            (row, aliases) ->
+                mapper.map(
+                    (Long) row[0],
+                    (String) row[1],
+                    (String) row[2],
+                    (Integer) row[3],
+                    (Integer) row[4],
+                    (LocalDateTime) row[5],
+                    (Integer) row[6]));
+  }
+
+  // reads the usage the writes keep per location, rather than aggregating its warehouses
+  @SuppressWarnings("unchecked")
+  private NativeQuery<Object[]> usageQuery(String sql) {
+    return getEntityManager()
+        .createNativeQuery(sql, Object[].class)
+        .unwrap(NativeQuery.class)
+        .addSynchronizedQuerySpace("location_usage");
+  }
+
+  private void addUsage(String location, long warehouses, long capacity) {
+    if (location == null) {
+      return;
+    }
+    getEntityManager()
+        .createNativeQuery(ADD_USAGE)
+        .unwrap(NativeQuery.class)
+        .addSynchronizedQuerySpace("location_usage")
+        .setParameter(1, location)
+        .setParameter(2, warehouses)
+        .setParameter(3, capacity)
+        .executeUpdate();
+  }
+
+  private static long capacityOf(Warehouse warehouse) {
+    return warehouse.capacity == null ? 0 : warehouse.capacity;
+  }
+
+  // declares the tables it writes, so only the cached warehouses are invalidated
+  private NativeQuery<?> synchronizedQuery(String sql) {
+    return getEntityManager()
+        .createNativeQuery(sql)
+        .unwrap(NativeQuery.class)
+        .addSynchronizedEntityClass(DbWarehouse.class)
+        .addSynchronizedEntityClass(DbWarehouseHistory.class);
+  }
+
+  private static DbWarehouse toDbWarehouse(Warehouse warehouse) {
+    DbWarehouse dbWarehouse = new DbWarehouse();
+    dbWarehouse.businessUnitCode = warehouse.businessUnitCode;
+    dbWarehouse.location = warehouse.location;
+    dbWarehouse.capacity = warehouse.capacity;
+    dbWarehouse.stock = warehouse.stock;
+    dbWarehouse.createdAt = warehouse.createdAt;
+    return dbWarehouse;
+  }
+
+  private static boolean violates(Throwable e, String constraint) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation
+          && constraint.equalsIgnoreCase(violation.getConstraintName())) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
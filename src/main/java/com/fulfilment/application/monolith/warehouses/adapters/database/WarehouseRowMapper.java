@@ -0,0 +1,34 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.LocalDateTime;
+
+/**
+ * Builds a result straight from the columns of an active warehouse row, so reads that only hand
+ * data out do not hydrate a managed {@link DbWarehouse} and copy it again.
+ */
+@FunctionalInterface
+public interface WarehouseRowMapper<T> {
+
+  WarehouseRowMapper<Warehouse> WAREHOUSE =
+      (id, businessUnitCode, location, capacity, stock, createdAt, version) -> {
+        var warehouse = new Warehouse();
+        warehouse.id = id;
+        warehouse.businessUnitCode = businessUnitCode;
+        warehouse.location = location;
+        warehouse.capacity = capacity;
+        warehouse.stock = stock;
+        warehouse.createdAt = createdAt;
+        warehouse.version = version;
+        return warehouse;
+      };
+
+  T map(
+      Long id,
+      String businessUnitCode,
+      String location,
+      Integer capacity,
+      Integer stock,
+      LocalDateTime createdAt,
+      Integer version);
+}
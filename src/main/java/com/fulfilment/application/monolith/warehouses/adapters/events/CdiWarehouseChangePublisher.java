@@ -0,0 +1,22 @@
+package com.fulfilment.application.monolith.warehouses.adapters.events;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+
+/** Fires warehouse changes as CDI events, like the store resource does for store changes. */
+@ApplicationScoped
+public class CdiWarehouseChangePublisher implements WarehouseChangePublisher {
+
+  private final Event<WarehouseChangedEvent> event;
+
+  public CdiWarehouseChangePublisher(Event<WarehouseChangedEvent> event) {
+    this.event = event;
+  }
+
+  @Override
+  public void publish(WarehouseChangedEvent change) {
+    event.fire(change);
+  }
+}
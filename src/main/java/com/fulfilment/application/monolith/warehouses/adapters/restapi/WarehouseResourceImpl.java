@@ -1,32 +1,116 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.common.Idempotent;
+import com.fulfilment.application.monolith.common.NdjsonStream;
+import com.fulfilment.application.monolith.common.RequestRejectedException;
 import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.ReactiveWarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRowMapper;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportResult;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseReplacementResult;
+import com.fulfilment.application.monolith.warehouses.domain.ports.AdjustWarehouseStockOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.BulkCreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.BulkReplaceWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveAdjustWarehouseStockOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
 import com.warehouse.api.WarehouseResource;
+import com.warehouse.api.beans.StockAdjustment;
+import com.warehouse.api.beans.WarehouseReplacement;
+import com.warehouse.api.beans.WarehouseVersion;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.constraints.NotNull;
-import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @RequestScoped
+@RunOnVirtualThread
 public class WarehouseResourceImpl implements WarehouseResource {
 
+  static final int MAX_PAGE_SIZE = 1000;
+
+  // reads build the response bean straight from the row, with no entity or domain copy in between
+  static final WarehouseRowMapper<com.warehouse.api.beans.Warehouse> RESPONSE =
+      (id, businessUnitCode, location, capacity, stock, createdAt, version) -> {
+        var response = new com.warehouse.api.beans.Warehouse();
+        response.setId(String.valueOf(id));
+        response.setBusinessUnitCode(businessUnitCode);
+        response.setLocation(location);
+        response.setCapacity(capacity);
+        response.setStock(stock);
+        return response;
+      };
+
+  private static final WarehouseRowMapper<String> BUSINESS_UNIT_CODE =
+      (id, businessUnitCode, location, capacity, stock, createdAt, version) -> businessUnitCode;
+
+  // selects the store the reads and stock adjustments go through, so both can be compared in place
+  @ConfigProperty(name = "warehouse.store.reactive", defaultValue = "false")
+  boolean reactive;
+
   @Inject private WarehouseRepository warehouseRepository;
+  @Inject private ReactiveWarehouseRepository reactiveWarehouseRepository;
   @Inject private CreateWarehouseOperation createWarehouseOperation;
   @Inject private ArchiveWarehouseOperation archiveWarehouseOperation;
   @Inject private ReplaceWarehouseOperation replaceWarehouseOperation;
+  @Inject private BulkCreateWarehouseOperation bulkCreateWarehouseOperation;
+  @Inject private BulkReplaceWarehouseOperation bulkReplaceWarehouseOperation;
+  @Inject private AdjustWarehouseStockOperation adjustWarehouseStockOperation;
+  @Inject private ReactiveAdjustWarehouseStockOperation reactiveAdjustWarehouseStockOperation;
+  @Inject private ObjectMapper objectMapper;
+
+  @Override
+  public List<com.warehouse.api.beans.Warehouse> listAllWarehousesUnits(Integer limit, Long after) {
+    if (limit == null) {
+      return read(
+          () -> reactiveWarehouseRepository.listActive(RESPONSE),
+          () -> warehouseRepository.listActive(RESPONSE));
+    }
+    if (limit < 1) {
+      throw new RequestRejectedException("Invalid page size: " + limit, 400);
+    }
+    int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+    return read(
+        () -> reactiveWarehouseRepository.findActivePage(after, pageSize, RESPONSE),
+        () -> warehouseRepository.findActivePage(after, pageSize, RESPONSE));
+  }
+
+  @Override
+  public List<com.warehouse.api.beans.WarehouseImportResult> createManyWarehouseUnitsAtOnce(
+      @NotNull List<com.warehouse.api.beans.Warehouse> data) {
+    List<Warehouse> warehouses = new ArrayList<>(data.size());
+    for (com.warehouse.api.beans.Warehouse item : data) {
+      warehouses.add(toDomain(item));
+    }
+    return bulkCreateWarehouseOperation.createAll(warehouses).stream()
+        .map(this::toImportResultResponse)
+        .toList();
+  }
 
   @Override
-  public List<com.warehouse.api.beans.Warehouse> listAllWarehousesUnits() {
-    return warehouseRepository.getAll().stream().map(this::toWarehouseResponse).toList();
+  public Response streamAllActiveWarehouseUnits() {
+    return NdjsonStream.of(
+        objectMapper,
+        "from DbWarehouse order by id",
+        DbWarehouse.class,
+        this::toWarehouseResponse);
   }
 
   @Override
+  @Idempotent
   public com.warehouse.api.beans.Warehouse createANewWarehouseUnit(
       @NotNull com.warehouse.api.beans.Warehouse data) {
     Warehouse warehouse = toDomain(data);
@@ -36,17 +120,64 @@ public class WarehouseResourceImpl implements WarehouseResource {
 
   @Override
   public com.warehouse.api.beans.Warehouse getAWarehouseUnitByID(String id) {
-    DbWarehouse dbWarehouse = findActiveDbWarehouseById(id);
-    return toWarehouseResponse(dbWarehouse.toWarehouse());
+    long longId = parseId(id);
+    return requireFound(
+        read(
+            () -> reactiveWarehouseRepository.findActiveById(longId, RESPONSE),
+            () -> warehouseRepository.findActiveById(longId, RESPONSE)),
+        id);
+  }
+
+  @Override
+  public List<WarehouseVersion> getTheHistoryOfABusinessUnitCode(
+      String businessUnitCode, String asOf) {
+    if (asOf != null) {
+      Warehouse warehouse = warehouseRepository.findAsOf(businessUnitCode, parseAsOf(asOf));
+      return warehouse == null ? List.of() : List.of(toVersionResponse(warehouse));
+    }
+    List<Warehouse> history = warehouseRepository.getHistory(businessUnitCode);
+    if (history.isEmpty()) {
+      throw new RequestRejectedException(
+          "No warehouse ever held business unit code: " + businessUnitCode, 404);
+    }
+    return history.stream().map(this::toVersionResponse).toList();
   }
 
   @Override
   public void archiveAWarehouseUnitByID(String id) {
-    DbWarehouse dbWarehouse = findActiveDbWarehouseById(id);
-    archiveWarehouseOperation.archive(dbWarehouse.toWarehouse());
+    Warehouse warehouse =
+        warehouseRepository.findActiveById(parseId(id), WarehouseRowMapper.WAREHOUSE);
+    archiveWarehouseOperation.archive(requireFound(warehouse, id));
   }
 
   @Override
+  public com.warehouse.api.beans.Warehouse adjustTheStockOfAWarehouseUnit(
+      String id, @NotNull StockAdjustment data) {
+    if (data.getDelta() == null) {
+      throw new RequestRejectedException("Stock delta was not set on request.", 400);
+    }
+    long longId = parseId(id);
+    int delta = data.getDelta();
+    Warehouse warehouse =
+        reactive
+            ? reactiveWarehouseRepository
+                .findActiveById(longId, BUSINESS_UNIT_CODE)
+                .chain(
+                    businessUnitCode ->
+                        reactiveAdjustWarehouseStockOperation.adjustStock(
+                            requireFound(businessUnitCode, id), delta))
+                .await()
+                .indefinitely()
+            : adjustWarehouseStockOperation.adjustStock(
+                requireFound(warehouseRepository.findActiveById(longId, BUSINESS_UNIT_CODE), id),
+                delta);
+    var response = toWarehouseResponse(warehouse);
+    response.setId(id);
+    return response;
+  }
+
+  @Override
+  @Idempotent
   public com.warehouse.api.beans.Warehouse replaceTheCurrentActiveWarehouse(
       String businessUnitCode, @NotNull com.warehouse.api.beans.Warehouse data) {
     Warehouse newWarehouse = toDomain(data);
@@ -55,18 +186,57 @@ public class WarehouseResourceImpl implements WarehouseResource {
     return toWarehouseResponse(newWarehouse);
   }
 
-  private DbWarehouse findActiveDbWarehouseById(String id) {
-    long longId;
+  @Override
+  @Idempotent
+  public List<com.warehouse.api.beans.WarehouseReplacementResult> replaceManyWarehouseUnitsAtOnce(
+      @NotNull List<WarehouseReplacement> data) {
+    List<Warehouse> warehouses = new ArrayList<>(data.size());
+    for (WarehouseReplacement item : data) {
+      if (item.getWarehouse() == null) {
+        throw new RequestRejectedException(
+            "Replacement of " + item.getBusinessUnitCode() + " has no warehouse", 400);
+      }
+      Warehouse newWarehouse = toDomain(item.getWarehouse());
+      newWarehouse.businessUnitCode = item.getBusinessUnitCode();
+      warehouses.add(newWarehouse);
+    }
+    return bulkReplaceWarehouseOperation.replaceAll(warehouses).stream()
+        .map(this::toReplacementResultResponse)
+        .toList();
+  }
+
+  /**
+   * Reads through the reactive store when it is selected, otherwise through JDBC. Either way the
+   * request's thread, a virtual one when enabled, waits for the result; the reactive store does its
+   * I/O on the event loop and holds no JDBC connection meanwhile.
+   */
+  private <T> T read(Supplier<Uni<T>> reactiveRead, Supplier<T> blockingRead) {
+    return reactive ? reactiveRead.get().await().indefinitely() : blockingRead.get();
+  }
+
+  private static long parseId(String id) {
     try {
-      longId = Long.parseLong(id);
+      return Long.parseLong(id);
     } catch (NumberFormatException e) {
-      throw new WebApplicationException("Invalid warehouse ID: " + id, 400);
+      throw new RequestRejectedException("Invalid warehouse ID: " + id, 400);
     }
-    DbWarehouse dbWarehouse = warehouseRepository.findById(longId);
-    if (dbWarehouse == null || dbWarehouse.archivedAt != null) {
-      throw new WebApplicationException("Warehouse not found with id: " + id, 404);
+  }
+
+  private static LocalDateTime parseAsOf(String asOf) {
+    try {
+      return asOf.length() == 10
+          ? LocalDate.parse(asOf).atStartOfDay()
+          : LocalDateTime.parse(asOf);
+    } catch (DateTimeParseException e) {
+      throw new RequestRejectedException("Invalid asOf: " + asOf, 400);
     }
-    return dbWarehouse;
+  }
+
+  private static <T> T requireFound(T activeWarehouse, String id) {
+    if (activeWarehouse == null) {
+      throw new RequestRejectedException("Warehouse not found with id: " + id, 404);
+    }
+    return activeWarehouse;
   }
 
   private Warehouse toDomain(com.warehouse.api.beans.Warehouse data) {
@@ -78,6 +248,12 @@ public class WarehouseResourceImpl implements WarehouseResource {
     return warehouse;
   }
 
+  com.warehouse.api.beans.Warehouse toWarehouseResponse(DbWarehouse dbWarehouse) {
+    var response = toWarehouseResponse(dbWarehouse.toWarehouse());
+    response.setId(String.valueOf(dbWarehouse.id));
+    return response;
+  }
+
   private com.warehouse.api.beans.Warehouse toWarehouseResponse(Warehouse warehouse) {
     var response = new com.warehouse.api.beans.Warehouse();
     response.setBusinessUnitCode(warehouse.businessUnitCode);
@@ -86,4 +262,35 @@ public class WarehouseResourceImpl implements WarehouseResource {
     response.setStock(warehouse.stock);
     return response;
   }
+
+  private WarehouseVersion toVersionResponse(Warehouse warehouse) {
+    var response = new WarehouseVersion();
+    response.setBusinessUnitCode(warehouse.businessUnitCode);
+    response.setLocation(warehouse.location);
+    response.setCapacity(warehouse.capacity);
+    response.setStock(warehouse.stock);
+    response.setCreatedAt(warehouse.createdAt == null ? null : warehouse.createdAt.toString());
+    response.setArchivedAt(warehouse.archivedAt == null ? null : warehouse.archivedAt.toString());
+    return response;
+  }
+
+  private com.warehouse.api.beans.WarehouseImportResult toImportResultResponse(
+      WarehouseImportResult result) {
+    var response = new com.warehouse.api.beans.WarehouseImportResult();
+    response.setIndex(result.index);
+    response.setBusinessUnitCode(result.businessUnitCode);
+    response.setCreated(result.isCreated());
+    response.setError(result.error);
+    return response;
+  }
+
+  private com.warehouse.api.beans.WarehouseReplacementResult toReplacementResultResponse(
+      WarehouseReplacementResult result) {
+    var response = new com.warehouse.api.beans.WarehouseReplacementResult();
+    response.setIndex(result.index);
+    response.setBusinessUnitCode(result.businessUnitCode);
+    response.setReplaced(result.replaced);
+    response.setError(result.error);
+    return response;
+  }
 }
@@ -0,0 +1,40 @@
+package com.fulfilment.application.monolith.warehouses.domain.exceptions;
+
+import com.fulfilment.application.monolith.common.OperationRejectedException;
+
+/** A warehouse operation refused by one of the business rules. */
+public class WarehouseRejectedException extends OperationRejectedException {
+
+  /** The rule that rejected the operation, along with the HTTP status it is reported with. */
+  public enum Reason {
+    INVALID_LOCATION(400),
+    LOCATION_WAREHOUSE_LIMIT(400),
+    LOCATION_CAPACITY_LIMIT(400),
+    CAPACITY_MISSING(400),
+    STOCK_EXCEEDS_CAPACITY(400),
+    DUPLICATE_BUSINESS_UNIT_CODE(400),
+    WAREHOUSE_NOT_FOUND(404),
+    CAPACITY_BELOW_STOCK(400),
+    STOCK_MISMATCH(400),
+    STOCK_OUT_OF_RANGE(409),
+    CONCURRENT_UPDATE(409);
+
+    public final int status;
+
+    Reason(int status) {
+      this.status = status;
+    }
+  }
+
+  public final Reason reason;
+
+  public WarehouseRejectedException(Reason reason, String message) {
+    super(message, reason.status);
+    this.reason = reason;
+  }
+
+  @Override
+  public String reasonCode() {
+    return reason.name();
+  }
+}
@@ -0,0 +1,17 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+public class LocationUsage {
+  public String location;
+
+  // number of active (non archived) warehouses in this location
+  public long activeWarehouses;
+
+  // sum of the capacities of the active warehouses in this location
+  public long totalCapacity;
+
+  public LocationUsage(String location, long activeWarehouses, long totalCapacity) {
+    this.location = location;
+    this.activeWarehouses = activeWarehouses;
+    this.totalCapacity = totalCapacity;
+  }
+}
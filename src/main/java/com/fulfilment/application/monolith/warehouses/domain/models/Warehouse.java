@@ -4,6 +4,9 @@ import java.time.LocalDateTime;
 
 public class Warehouse {
 
+  // identifies this warehouse among the ones that held its business unit code, set once stored
+  public Long id;
+
   // unique identifier
   public String businessUnitCode;
 
@@ -16,4 +19,7 @@ public class Warehouse {
   public LocalDateTime createdAt;
 
   public LocalDateTime archivedAt;
+
+  // the version read along with it, an archive fails when the stored one moved on since
+  public Integer version;
 }
@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/** A warehouse that was created, updated, replaced or archived, with its state after the change. */
+public class WarehouseChangedEvent {
+
+  public enum Type {
+    CREATED,
+    UPDATED,
+    // the warehouse took over the business unit code of one that was archived at the same time
+    REPLACED,
+    ARCHIVED
+  }
+
+  public final Type type;
+  public final Warehouse warehouse;
+
+  public WarehouseChangedEvent(Type type, Warehouse warehouse) {
+    this.type = type;
+    this.warehouse = warehouse;
+  }
+}
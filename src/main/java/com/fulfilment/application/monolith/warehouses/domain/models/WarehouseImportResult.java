@@ -0,0 +1,22 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+public class WarehouseImportResult {
+
+  // position of the warehouse in the imported batch
+  public int index;
+
+  public String businessUnitCode;
+
+  // why the warehouse was rejected, null when it was created
+  public String error;
+
+  public WarehouseImportResult(int index, String businessUnitCode, String error) {
+    this.index = index;
+    this.businessUnitCode = businessUnitCode;
+    this.error = error;
+  }
+
+  public boolean isCreated() {
+    return error == null;
+  }
+}
@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+public class WarehouseReplacementResult {
+
+  // position of the replacement in the batch
+  public int index;
+
+  public String businessUnitCode;
+
+  // why the replacement was rejected, null when it is valid
+  public String error;
+
+  // false for every replacement of a batch that had a rejected one
+  public boolean replaced;
+
+  public WarehouseReplacementResult(int index, String businessUnitCode, String error) {
+    this.index = index;
+    this.businessUnitCode = businessUnitCode;
+    this.error = error;
+  }
+}
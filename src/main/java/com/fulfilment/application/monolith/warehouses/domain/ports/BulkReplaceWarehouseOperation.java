@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseReplacementResult;
+import java.util.List;
+
+public interface BulkReplaceWarehouseOperation {
+
+  /**
+   * Replaces the active warehouses with the business unit codes of the given ones, all of them or
+   * none when one is rejected.
+   */
+  List<WarehouseReplacementResult> replaceAll(List<Warehouse> warehouses);
+}
@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.smallrye.mutiny.Uni;
+import java.util.List;
+
+/**
+ * Non-blocking variant of the reads and the stock adjustment of {@link WarehouseStore}, safe to
+ * call from the event loop.
+ */
+public interface ReactiveWarehouseStore {
+
+  Uni<List<Warehouse>> getAll();
+
+  /** Emits null when there is no active warehouse with the code. */
+  Uni<Warehouse> findByBusinessUnitCode(String buCode);
+
+  /**
+   * Same contract as {@link WarehouseStore#adjustStock}, emits null when nothing was adjusted. The
+   * adjustment is recorded as a change along with it, there is no transaction to publish it in.
+   */
+  Uni<Integer> adjustStock(String buCode, int delta);
+}
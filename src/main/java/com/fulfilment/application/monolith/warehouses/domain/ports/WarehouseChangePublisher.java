@@ -0,0 +1,11 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
+
+/**
+ * Announces changes to warehouses. Called inside the transaction making the change, so whatever
+ * records it commits or rolls back along with the change.
+ */
+public interface WarehouseChangePublisher {
+  void publish(WarehouseChangedEvent event);
+}
@@ -1,17 +1,94 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface WarehouseStore {
 
+  /**
+   * Thrown by {@link #create} and {@link #createAll} when an active warehouse already uses the
+   * business unit code.
+   */
+  class DuplicateBusinessUnitCodeException extends RuntimeException {
+    public DuplicateBusinessUnitCodeException(String businessUnitCode, Throwable cause) {
+      super("Business unit code already exists: " + businessUnitCode, cause);
+    }
+
+    public DuplicateBusinessUnitCodeException(Throwable cause) {
+      super("A business unit code already exists", cause);
+    }
+  }
+
+  /**
+   * Thrown by {@link #archive} and {@link #archiveAll} when a warehouse was changed concurrently.
+   */
+  class ConcurrentWarehouseUpdateException extends RuntimeException {
+    public ConcurrentWarehouseUpdateException(String businessUnitCode, Throwable cause) {
+      super("Warehouse was changed concurrently: " + businessUnitCode, cause);
+    }
+
+    public ConcurrentWarehouseUpdateException(int changed) {
+      super(changed + " of the warehouses were changed concurrently");
+    }
+  }
+
   List<Warehouse> getAll();
 
   void create(Warehouse warehouse);
 
-  void update(Warehouse warehouse);
+  /** Creates all warehouses in one go, rejecting duplicates like {@link #create} does. */
+  void createAll(List<Warehouse> warehouses);
+
+  /**
+   * Moves the active warehouse with the id into the history as of its {@code archivedAt}. It must
+   * still have the version it was read with, otherwise it was changed, archived or replaced
+   * concurrently and {@link ConcurrentWarehouseUpdateException} is thrown.
+   */
+  void archive(Warehouse warehouse);
+
+  /**
+   * Archives all warehouses like {@link #archive} in one go. Throws {@link
+   * ConcurrentWarehouseUpdateException} when any of them was changed, leaving the others to be
+   * rolled back with the transaction.
+   */
+  void archiveAll(List<Warehouse> warehouses);
 
   void remove(Warehouse warehouse);
 
+  /**
+   * Atomically adds {@code delta} to the stock of the active warehouse, provided the result stays
+   * within 0 and its capacity. Returns the new stock, or null when nothing was adjusted.
+   */
+  Integer adjustStock(String buCode, int delta);
+
   Warehouse findByBusinessUnitCode(String buCode);
+
+  /**
+   * Reserves the locations for creating warehouses until the calling transaction ends. Other
+   * callers reserving one of them wait until then, so their limit checks see what was created.
+   * Callers reserving different locations do not wait for each other.
+   */
+  void reserveLocations(Collection<String> locations);
+
+  LocationUsage getUsageByLocation(String location);
+
+  /** Usage of every location that has at least one active warehouse, keyed by location. */
+  Map<String, LocationUsage> getUsageByLocation();
+
+  /** The active warehouses with the given codes, keyed by code. */
+  Map<String, Warehouse> findByBusinessUnitCodes(Collection<String> buCodes);
+
+  /** The subset of the given codes that are in use by an active warehouse. */
+  Set<String> findActiveBusinessUnitCodes(Collection<String> buCodes);
+
+  /** Every warehouse that held the business unit code, oldest first, ending with the active one. */
+  List<Warehouse> getHistory(String buCode);
+
+  /** The warehouse that held the business unit code at the given moment, or null. */
+  Warehouse findAsOf(String buCode, LocalDateTime asOf);
 }
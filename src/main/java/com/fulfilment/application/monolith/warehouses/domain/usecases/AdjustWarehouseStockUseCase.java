@@ -0,0 +1,65 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.common.MeteredOperation;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException.Reason;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.AdjustWarehouseStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+
+@ApplicationScoped
+@MeteredOperation("warehouse.adjust-stock")
+public class AdjustWarehouseStockUseCase implements AdjustWarehouseStockOperation {
+
+  private final WarehouseStore warehouseStore;
+  private final WarehouseChangePublisher changePublisher;
+
+  public AdjustWarehouseStockUseCase(
+      WarehouseStore warehouseStore, WarehouseChangePublisher changePublisher) {
+    this.warehouseStore = warehouseStore;
+    this.changePublisher = changePublisher;
+  }
+
+  @Override
+  @Transactional
+  public Warehouse adjustStock(String businessUnitCode, int delta) {
+    // 1. The warehouse must exist and be active.
+    Warehouse warehouse = warehouseStore.findByBusinessUnitCode(businessUnitCode);
+    if (warehouse == null) {
+      throw notFound(businessUnitCode);
+    }
+
+    // 2. The adjusted stock must stay between zero and the capacity, checked by the store in the
+    // same statement that applies the adjustment.
+    Integer stock = warehouseStore.adjustStock(businessUnitCode, delta);
+    if (stock == null) {
+      throw outOfRange(warehouse, delta);
+    }
+
+    warehouse.stock = stock;
+    changePublisher.publish(
+        new WarehouseChangedEvent(WarehouseChangedEvent.Type.UPDATED, warehouse));
+    return warehouse;
+  }
+
+  static WarehouseRejectedException notFound(String businessUnitCode) {
+    return new WarehouseRejectedException(
+        Reason.WAREHOUSE_NOT_FOUND,
+        "Active warehouse not found for business unit code: " + businessUnitCode);
+  }
+
+  static WarehouseRejectedException outOfRange(Warehouse warehouse, int delta) {
+    return new WarehouseRejectedException(
+        Reason.STOCK_OUT_OF_RANGE,
+        "Stock adjustment of "
+            + delta
+            + " would take the stock of warehouse "
+            + warehouse.businessUnitCode
+            + " below zero or above its capacity of "
+            + warehouse.capacity);
+  }
+}
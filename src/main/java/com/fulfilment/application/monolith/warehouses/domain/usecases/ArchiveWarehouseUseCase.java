@@ -1,25 +1,41 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.common.MeteredOperation;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException.Reason;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore.ConcurrentWarehouseUpdateException;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
 
 @ApplicationScoped
+@MeteredOperation("warehouse.archive")
 public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
+  private final WarehouseChangePublisher changePublisher;
 
-  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore) {
+  public ArchiveWarehouseUseCase(
+      WarehouseStore warehouseStore, WarehouseChangePublisher changePublisher) {
     this.warehouseStore = warehouseStore;
+    this.changePublisher = changePublisher;
   }
 
   @Override
   @Transactional
   public void archive(Warehouse warehouse) {
     warehouse.archivedAt = LocalDateTime.now();
-    warehouseStore.update(warehouse);
+    try {
+      warehouseStore.archive(warehouse);
+    } catch (ConcurrentWarehouseUpdateException e) {
+      throw new WarehouseRejectedException(Reason.CONCURRENT_UPDATE, e.getMessage());
+    }
+    changePublisher.publish(
+        new WarehouseChangedEvent(WarehouseChangedEvent.Type.ARCHIVED, warehouse));
   }
 }
@@ -0,0 +1,116 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.common.MeteredOperation;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException.Reason;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportResult;
+import com.fulfilment.application.monolith.warehouses.domain.ports.BulkCreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore.DuplicateBusinessUnitCodeException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@ApplicationScoped
+@MeteredOperation("warehouse.bulk-create")
+public class BulkCreateWarehouseUseCase implements BulkCreateWarehouseOperation {
+
+  private final WarehouseStore warehouseStore;
+  private final LocationResolver locationResolver;
+  private final WarehouseChangePublisher changePublisher;
+
+  public BulkCreateWarehouseUseCase(
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      WarehouseChangePublisher changePublisher) {
+    this.warehouseStore = warehouseStore;
+    this.locationResolver = locationResolver;
+    this.changePublisher = changePublisher;
+  }
+
+  @Override
+  @Transactional
+  public List<WarehouseImportResult> createAll(List<Warehouse> warehouses) {
+    // Creations in the locations of the batch wait for it from here on, so the snapshot below
+    // stays accurate until the batch is committed.
+    Set<String> locations = new HashSet<>();
+    for (Warehouse warehouse : warehouses) {
+      Location location = locationResolver.resolveByIdentifier(warehouse.location);
+      if (location != null) {
+        locations.add(location.identification);
+      }
+    }
+    warehouseStore.reserveLocations(locations);
+
+    // One snapshot of the location usage and of the codes in use serves the whole batch, and is
+    // updated as warehouses are accepted so later ones are checked against the earlier ones.
+    Map<String, LocationUsage> usageByLocation = new HashMap<>(warehouseStore.getUsageByLocation());
+    Set<String> requestedCodes = new HashSet<>();
+    for (Warehouse warehouse : warehouses) {
+      requestedCodes.add(warehouse.businessUnitCode);
+    }
+    Set<String> usedCodes =
+        new HashSet<>(warehouseStore.findActiveBusinessUnitCodes(requestedCodes));
+
+    LocalDateTime now = LocalDateTime.now();
+    List<WarehouseImportResult> results = new ArrayList<>(warehouses.size());
+    List<Warehouse> accepted = new ArrayList<>(warehouses.size());
+    for (int i = 0; i < warehouses.size(); i++) {
+      Warehouse warehouse = warehouses.get(i);
+      String rejection = check(warehouse, usageByLocation, usedCodes);
+      results.add(new WarehouseImportResult(i, warehouse.businessUnitCode, rejection));
+      if (rejection == null) {
+        warehouse.createdAt = now;
+        accepted.add(warehouse);
+      }
+    }
+
+    try {
+      warehouseStore.createAll(accepted);
+    } catch (DuplicateBusinessUnitCodeException e) {
+      // another request created one of the codes since the snapshot was taken
+      throw new WarehouseRejectedException(Reason.CONCURRENT_UPDATE, e.getMessage());
+    }
+    for (Warehouse warehouse : accepted) {
+      changePublisher.publish(
+          new WarehouseChangedEvent(WarehouseChangedEvent.Type.CREATED, warehouse));
+    }
+    return results;
+  }
+
+  private String check(
+      Warehouse warehouse, Map<String, LocationUsage> usageByLocation, Set<String> usedCodes) {
+    if (usedCodes.contains(warehouse.businessUnitCode)) {
+      return "Business unit code already exists: " + warehouse.businessUnitCode;
+    }
+
+    Location location = locationResolver.resolveByIdentifier(warehouse.location);
+    LocationUsage usage =
+        location == null
+            ? null
+            : usageByLocation.computeIfAbsent(
+                location.identification, id -> new LocationUsage(id, 0, 0));
+    WarehouseRejectedException rejection =
+        CreateWarehouseUseCase.checkFeasibility(warehouse, location, usage);
+    if (rejection != null) {
+      return rejection.getMessage();
+    }
+
+    usedCodes.add(warehouse.businessUnitCode);
+    usage.activeWarehouses++;
+    usage.totalCapacity += warehouse.capacity;
+    return null;
+  }
+}
@@ -0,0 +1,113 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.common.MeteredOperation;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException.Reason;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseReplacementResult;
+import com.fulfilment.application.monolith.warehouses.domain.ports.BulkReplaceWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore.ConcurrentWarehouseUpdateException;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore.DuplicateBusinessUnitCodeException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@ApplicationScoped
+@MeteredOperation("warehouse.bulk-replace")
+public class BulkReplaceWarehouseUseCase implements BulkReplaceWarehouseOperation {
+
+  private final WarehouseStore warehouseStore;
+  private final LocationResolver locationResolver;
+  private final WarehouseChangePublisher changePublisher;
+
+  public BulkReplaceWarehouseUseCase(
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      WarehouseChangePublisher changePublisher) {
+    this.warehouseStore = warehouseStore;
+    this.locationResolver = locationResolver;
+    this.changePublisher = changePublisher;
+  }
+
+  @Override
+  @Transactional
+  public List<WarehouseReplacementResult> replaceAll(List<Warehouse> warehouses) {
+    // 1. The warehouses being replaced are read in one go, each replacement is then checked
+    // against the same rules as a single one.
+    Set<String> codes = new HashSet<>();
+    for (Warehouse warehouse : warehouses) {
+      codes.add(warehouse.businessUnitCode);
+    }
+    Map<String, Warehouse> oldWarehouses = warehouseStore.findByBusinessUnitCodes(codes);
+
+    List<WarehouseReplacementResult> results = new ArrayList<>(warehouses.size());
+    Set<String> replacedCodes = new HashSet<>();
+    boolean rejected = false;
+    for (int i = 0; i < warehouses.size(); i++) {
+      Warehouse warehouse = warehouses.get(i);
+      String rejection = check(warehouse, oldWarehouses, replacedCodes);
+      results.add(new WarehouseReplacementResult(i, warehouse.businessUnitCode, rejection));
+      rejected |= rejection != null;
+    }
+    // 2. The batch is replaced as a whole or not at all.
+    if (rejected) {
+      return results;
+    }
+
+    // 3. The locations left and entered are reserved up front, in the store's one order, so the
+    // usage rows the archive and the creation update below are not locked in two orders.
+    Set<String> locations = new HashSet<>();
+    for (Warehouse warehouse : warehouses) {
+      locations.add(oldWarehouses.get(warehouse.businessUnitCode).location);
+      locations.add(warehouse.location);
+    }
+    warehouseStore.reserveLocations(locations);
+
+    // 4. Archive all old warehouses, each must still be the version its replacement took over from.
+    // The new warehouses take over at the same instant, so the history has no gap in between.
+    LocalDateTime now = LocalDateTime.now();
+    List<Warehouse> archived = new ArrayList<>(warehouses.size());
+    for (Warehouse warehouse : warehouses) {
+      Warehouse oldWarehouse = oldWarehouses.get(warehouse.businessUnitCode);
+      oldWarehouse.archivedAt = now;
+      archived.add(oldWarehouse);
+      warehouse.createdAt = now;
+    }
+    try {
+      warehouseStore.archiveAll(archived);
+      // 5. Create the new warehouses under the same business unit codes.
+      warehouseStore.createAll(warehouses);
+    } catch (ConcurrentWarehouseUpdateException | DuplicateBusinessUnitCodeException e) {
+      throw new WarehouseRejectedException(Reason.CONCURRENT_UPDATE, e.getMessage());
+    }
+
+    for (int i = 0; i < warehouses.size(); i++) {
+      changePublisher.publish(
+          new WarehouseChangedEvent(WarehouseChangedEvent.Type.REPLACED, warehouses.get(i)));
+      results.get(i).replaced = true;
+    }
+    return results;
+  }
+
+  private String check(
+      Warehouse warehouse, Map<String, Warehouse> oldWarehouses, Set<String> replacedCodes) {
+    if (!replacedCodes.add(warehouse.businessUnitCode)) {
+      return "Business unit code is replaced more than once: " + warehouse.businessUnitCode;
+    }
+    Location location = locationResolver.resolveByIdentifier(warehouse.location);
+    WarehouseRejectedException rejection =
+        ReplaceWarehouseUseCase.checkReplacement(
+            oldWarehouses.get(warehouse.businessUnitCode), warehouse, location);
+    return rejection == null ? null : rejection.getMessage();
+  }
+}
@@ -1,72 +1,104 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.common.MeteredOperation;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException.Reason;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore.DuplicateBusinessUnitCodeException;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
-import jakarta.ws.rs.WebApplicationException;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @ApplicationScoped
+@MeteredOperation("warehouse.create")
 public class CreateWarehouseUseCase implements CreateWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
   private final LocationResolver locationResolver;
+  private final WarehouseChangePublisher changePublisher;
 
-  public CreateWarehouseUseCase(WarehouseStore warehouseStore, LocationResolver locationResolver) {
+  public CreateWarehouseUseCase(
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      WarehouseChangePublisher changePublisher) {
     this.warehouseStore = warehouseStore;
     this.locationResolver = locationResolver;
+    this.changePublisher = changePublisher;
   }
 
   @Override
   @Transactional
   public void create(Warehouse warehouse) {
-    // 1. Business Unit Code must be unique among active warehouses.
-    if (warehouseStore.findByBusinessUnitCode(warehouse.businessUnitCode) != null) {
-      throw new WebApplicationException(
-          "Business unit code already exists: " + warehouse.businessUnitCode, 400);
+    // 1. - 4. Location must be valid and have room for the warehouse, which must hold its stock.
+    // Other creations in the location wait for this one once it is reserved, so they cannot both
+    // pass the limit checks on the same usage.
+    Location location = locationResolver.resolveByIdentifier(warehouse.location);
+    LocationUsage usage = null;
+    if (location != null) {
+      warehouseStore.reserveLocations(List.of(location.identification));
+      usage = warehouseStore.getUsageByLocation(location.identification);
+    }
+    WarehouseRejectedException rejection = checkFeasibility(warehouse, location, usage);
+    if (rejection != null) {
+      throw rejection;
     }
 
-    // 2. Location must be a known, valid location.
-    Location location = locationResolver.resolveByIdentifier(warehouse.location);
+    // 5. Business Unit Code must be unique among active warehouses, enforced by the store on insert
+    // so concurrent creates of the same code cannot both succeed.
+    warehouse.createdAt = LocalDateTime.now();
+    try {
+      warehouseStore.create(warehouse);
+    } catch (DuplicateBusinessUnitCodeException e) {
+      throw new WarehouseRejectedException(Reason.DUPLICATE_BUSINESS_UNIT_CODE, e.getMessage());
+    }
+    changePublisher.publish(
+        new WarehouseChangedEvent(WarehouseChangedEvent.Type.CREATED, warehouse));
+  }
+
+  /**
+   * Checks that the location is valid and can take the warehouse given its current usage, and that
+   * the warehouse can hold its own stock. Returns why the warehouse is rejected, or null.
+   */
+  static WarehouseRejectedException checkFeasibility(Warehouse warehouse, Location location, LocationUsage usage) {
+    // Location must be a known, valid location.
     if (location == null) {
-      throw new WebApplicationException("Invalid location: " + warehouse.location, 400);
+      return new WarehouseRejectedException(
+          Reason.INVALID_LOCATION, "Invalid location: " + warehouse.location);
     }
 
-    // 3. The location must not have reached its maximum number of warehouses.
-    long warehousesAtLocation =
-        warehouseStore.getAll().stream()
-            .filter(w -> w.location.equals(location.identification))
-            .count();
-    if (warehousesAtLocation >= location.maxNumberOfWarehouses) {
-      throw new WebApplicationException(
-          "Maximum number of warehouses reached for location: " + warehouse.location, 400);
+    // The location must not have reached its maximum number of warehouses.
+    if (usage.activeWarehouses >= location.maxNumberOfWarehouses) {
+      return new WarehouseRejectedException(
+          Reason.LOCATION_WAREHOUSE_LIMIT,
+          "Maximum number of warehouses reached for location: " + warehouse.location);
     }
 
-    // 4. The sum of warehouse capacities at this location must not exceed the location maximum.
-    int totalCapacityAtLocation =
-        warehouseStore.getAll().stream()
-            .filter(w -> w.location.equals(location.identification))
-            .mapToInt(w -> w.capacity)
-            .sum();
-    if (totalCapacityAtLocation + warehouse.capacity > location.maxCapacity) {
-      throw new WebApplicationException(
-          "Warehouse capacity exceeds the maximum total capacity for location: "
-              + warehouse.location,
-          400);
+    if (warehouse.capacity == null) {
+      return new WarehouseRejectedException(
+          Reason.CAPACITY_MISSING, "Warehouse capacity was not set on request.");
     }
 
-    // 5. Stock cannot exceed the warehouse's own capacity.
-    if (warehouse.stock != null && warehouse.capacity != null
-        && warehouse.stock > warehouse.capacity) {
-      throw new WebApplicationException(
-          "Warehouse stock cannot exceed its capacity.", 400);
+    // The sum of warehouse capacities at this location must not exceed the location maximum.
+    if (usage.totalCapacity + warehouse.capacity > location.maxCapacity) {
+      return new WarehouseRejectedException(
+          Reason.LOCATION_CAPACITY_LIMIT,
+          "Warehouse capacity exceeds the maximum total capacity for location: "
+              + warehouse.location);
     }
 
-    warehouse.createdAt = LocalDateTime.now();
-    warehouseStore.create(warehouse);
+    // Stock cannot exceed the warehouse's own capacity.
+    if (warehouse.stock != null && warehouse.stock > warehouse.capacity) {
+      return new WarehouseRejectedException(
+          Reason.STOCK_EXCEEDS_CAPACITY, "Warehouse stock cannot exceed its capacity.");
+    }
+    return null;
   }
 }
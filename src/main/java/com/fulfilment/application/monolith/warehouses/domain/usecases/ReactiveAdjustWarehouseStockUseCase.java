@@ -0,0 +1,43 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.common.MeteredOperation;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveAdjustWarehouseStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/** {@link AdjustWarehouseStockUseCase} on the event loop, with the same rules and rejections. */
+@ApplicationScoped
+@MeteredOperation("warehouse.adjust-stock")
+public class ReactiveAdjustWarehouseStockUseCase implements ReactiveAdjustWarehouseStockOperation {
+
+  private final ReactiveWarehouseStore warehouseStore;
+
+  public ReactiveAdjustWarehouseStockUseCase(ReactiveWarehouseStore warehouseStore) {
+    this.warehouseStore = warehouseStore;
+  }
+
+  @Override
+  public Uni<Warehouse> adjustStock(String businessUnitCode, int delta) {
+    // 1. The warehouse must exist and be active.
+    return warehouseStore
+        .findByBusinessUnitCode(businessUnitCode)
+        .onItem()
+        .ifNull()
+        .failWith(() -> AdjustWarehouseStockUseCase.notFound(businessUnitCode))
+        .chain(
+            warehouse ->
+                // 2. The store applies the adjustment only if the stock stays within range.
+                warehouseStore
+                    .adjustStock(businessUnitCode, delta)
+                    .onItem()
+                    .ifNull()
+                    .failWith(() -> AdjustWarehouseStockUseCase.outOfRange(warehouse, delta))
+                    .map(
+                        stock -> {
+                          warehouse.stock = stock;
+                          return warehouse;
+                        }));
+  }
+}
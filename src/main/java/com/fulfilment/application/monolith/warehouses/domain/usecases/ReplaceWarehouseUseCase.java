@@ -1,66 +1,113 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.common.MeteredOperation;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException.Reason;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore.ConcurrentWarehouseUpdateException;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
-import jakarta.ws.rs.WebApplicationException;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @ApplicationScoped
+@MeteredOperation("warehouse.replace")
 public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
   private final LocationResolver locationResolver;
+  private final WarehouseChangePublisher changePublisher;
 
   public ReplaceWarehouseUseCase(
-      WarehouseStore warehouseStore, LocationResolver locationResolver) {
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      WarehouseChangePublisher changePublisher) {
     this.warehouseStore = warehouseStore;
     this.locationResolver = locationResolver;
+    this.changePublisher = changePublisher;
   }
 
   @Override
   @Transactional
   public void replace(Warehouse newWarehouse) {
-    // 1. The warehouse being replaced must exist and be active.
+    // 1. - 4. The warehouse being replaced must be active, and the new one valid and able to take
+    // over its stock.
     Warehouse oldWarehouse =
         warehouseStore.findByBusinessUnitCode(newWarehouse.businessUnitCode);
+    Location location = locationResolver.resolveByIdentifier(newWarehouse.location);
+    WarehouseRejectedException rejection = checkReplacement(oldWarehouse, newWarehouse, location);
+    if (rejection != null) {
+      throw rejection;
+    }
+
+    // The locations left and entered are reserved in the store's one order, so a replacement the
+    // other way round cannot lock their usage rows in the opposite order.
+    warehouseStore.reserveLocations(List.of(oldWarehouse.location, newWarehouse.location));
+
+    // 5. Archive the old warehouse.
+    // It must still be the version read above, so a concurrent adjustment, archive or replacement
+    // fails the update instead of being archived in its place.
+    // The new warehouse takes over at the same instant, so the history has no gap in between.
+    LocalDateTime now = LocalDateTime.now();
+    oldWarehouse.archivedAt = now;
+    try {
+      warehouseStore.archive(oldWarehouse);
+    } catch (ConcurrentWarehouseUpdateException e) {
+      throw new WarehouseRejectedException(Reason.CONCURRENT_UPDATE, e.getMessage());
+    }
+
+    // 6. Create the new warehouse under the same business unit code.
+    newWarehouse.createdAt = now;
+    warehouseStore.create(newWarehouse);
+    changePublisher.publish(
+        new WarehouseChangedEvent(WarehouseChangedEvent.Type.REPLACED, newWarehouse));
+  }
+
+  /**
+   * Checks that the warehouse being replaced is active, that the location of the new one is valid
+   * and that the new one takes over the stock of the old one. Returns why the replacement is
+   * rejected, or null.
+   */
+  static WarehouseRejectedException checkReplacement(
+      Warehouse oldWarehouse, Warehouse newWarehouse, Location location) {
+    // The warehouse being replaced must exist and be active.
     if (oldWarehouse == null) {
-      throw new WebApplicationException(
-          "Active warehouse not found for business unit code: " + newWarehouse.businessUnitCode,
-          404);
+      return new WarehouseRejectedException(
+          Reason.WAREHOUSE_NOT_FOUND,
+          "Active warehouse not found for business unit code: " + newWarehouse.businessUnitCode);
     }
 
-    // 2. New warehouse location must be valid.
-    Location location = locationResolver.resolveByIdentifier(newWarehouse.location);
+    // New warehouse location must be valid.
     if (location == null) {
-      throw new WebApplicationException("Invalid location: " + newWarehouse.location, 400);
+      return new WarehouseRejectedException(
+          Reason.INVALID_LOCATION, "Invalid location: " + newWarehouse.location);
     }
 
-    // 3. New warehouse capacity must be able to accommodate the stock from the old warehouse.
+    if (newWarehouse.capacity == null) {
+      return new WarehouseRejectedException(
+          Reason.CAPACITY_MISSING, "Warehouse capacity was not set on request.");
+    }
+
+    // New warehouse capacity must be able to accommodate the stock from the old warehouse.
     if (newWarehouse.capacity < oldWarehouse.stock) {
-      throw new WebApplicationException(
+      return new WarehouseRejectedException(
+          Reason.CAPACITY_BELOW_STOCK,
           "New warehouse capacity is insufficient to accommodate the current stock of "
-              + oldWarehouse.stock,
-          400);
+              + oldWarehouse.stock);
     }
 
-    // 4. New warehouse stock must match the stock of the warehouse being replaced.
-    if (!newWarehouse.stock.equals(oldWarehouse.stock)) {
-      throw new WebApplicationException(
-          "New warehouse stock must match the replaced warehouse stock of " + oldWarehouse.stock,
-          400);
+    // New warehouse stock must match the stock of the warehouse being replaced.
+    if (!oldWarehouse.stock.equals(newWarehouse.stock)) {
+      return new WarehouseRejectedException(
+          Reason.STOCK_MISMATCH,
+          "New warehouse stock must match the replaced warehouse stock of " + oldWarehouse.stock);
     }
-
-    // 5. Archive the old warehouse.
-    oldWarehouse.archivedAt = LocalDateTime.now();
-    warehouseStore.update(oldWarehouse);
-
-    // 6. Create the new warehouse under the same business unit code.
-    newWarehouse.createdAt = LocalDateTime.now();
-    warehouseStore.create(newWarehouse);
+    return null;
   }
 }
@@ -0,0 +1,90 @@
+-- Schema of the entities, created once by Flyway instead of by Hibernate on every start.
+-- Sequences are pooled by Hibernate, which takes blocks of 50 ids per round trip.
+
+create sequence product_seq start with 1 increment by 50;
+create sequence store_seq start with 1 increment by 50;
+create sequence store_outbox_seq start with 1 increment by 50;
+create sequence warehouse_seq start with 1 increment by 50;
+
+create table product (
+    id bigint not null,
+    name varchar(40) unique,
+    description varchar(255),
+    price numeric(10, 2),
+    stock integer not null,
+    primary key (id)
+);
+
+create table store (
+    id bigint not null,
+    name varchar(40) unique,
+    quantityProductsInStock integer not null,
+    primary key (id)
+);
+
+create table store_outbox (
+    id bigint not null,
+    type varchar(255) check (type in ('CREATED', 'UPDATED')),
+    storeId bigint,
+    name varchar(255),
+    quantityProductsInStock integer not null,
+    createdAt timestamp(6),
+    attempts integer not null,
+    nextAttemptAt timestamp(6),
+    primary key (id)
+);
+create index store_outbox_store_idx on store_outbox (storeId);
+
+-- The warehouse table only holds active warehouses, archived ones move to warehouse_history.
+create table warehouse (
+    id bigint not null,
+    businessUnitCode varchar(255),
+    location varchar(255),
+    capacity integer,
+    stock integer,
+    createdAt timestamp(6),
+    version integer not null,
+    primary key (id)
+);
+-- At most one active warehouse per business unit code; also serves the lookups by code.
+create unique index warehouse_active_bu_code_uidx on warehouse (businessUnitCode);
+
+create table warehouse_history (
+    id bigint not null,
+    businessUnitCode varchar(255),
+    location varchar(255),
+    capacity integer,
+    stock integer,
+    createdAt timestamp(6),
+    archivedAt timestamp(6),
+    primary key (id)
+);
+create index warehouse_history_bu_code_idx on warehouse_history (businessUnitCode, createdAt);
+
+create table fulfilment_assignment (
+    productId bigint not null,
+    storeId bigint not null,
+    businessUnitCode varchar(255) not null,
+    createdAt timestamp(6),
+    primary key (productId, storeId, businessUnitCode)
+);
+create index fulfilment_assignment_store_idx on fulfilment_assignment (storeId);
+
+create table fulfilment_counter (
+    scope varchar(255) not null
+        check (scope in ('PRODUCT_STORE', 'STORE', 'WAREHOUSE', 'STORE_WAREHOUSE', 'WAREHOUSE_PRODUCT')),
+    counterKey varchar(255) not null,
+    total integer not null,
+    primary key (counterKey, scope)
+);
+
+create table idempotency_key (
+    idempotencyKey varchar(255) not null,
+    fingerprint varchar(255),
+    createdAt timestamp(6),
+    status integer,
+    contentType varchar(255),
+    body text,
+    primary key (idempotencyKey)
+);
+create index idempotency_key_created_idx on idempotency_key (createdAt);
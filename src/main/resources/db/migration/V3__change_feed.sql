@@ -0,0 +1,20 @@
+-- Change feed of warehouse, store and product mutations, served on GET /changes.
+-- Events are inserted by the transaction making the change, without a position. The feed numbers
+-- them once committed, one instance at a time, so positions only ever grow in commit order.
+
+create sequence change_event_seq start with 1 increment by 50;
+
+create table change_event (
+    id bigint not null,
+    position bigint unique,
+    entityType varchar(255) not null check (entityType in ('WAREHOUSE', 'STORE', 'PRODUCT')),
+    entityKey varchar(255) not null,
+    type varchar(255) not null
+        check (type in ('CREATED', 'UPDATED', 'REPLACED', 'ARCHIVED', 'DELETED')),
+    payload text,
+    -- the database clock, so events recorded by different instances sort alike
+    recordedAt timestamp(6) not null default clock_timestamp(),
+    primary key (id)
+);
+-- The events still to be numbered, in the order they are numbered.
+create index change_event_unnumbered_idx on change_event (recordedAt, id) where position is null;
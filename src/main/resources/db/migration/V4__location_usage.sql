@@ -0,0 +1,16 @@
+-- Usage of every location by its active warehouses, served on GET /location/utilisation and read by
+-- the limit checks of warehouse creations. Kept up to date by the statements creating and archiving
+-- warehouses, in their transaction, so it always matches the committed warehouses. Creations lock
+-- the rows of their locations before checking the limits, so they serialise per location.
+
+create table location_usage (
+    location varchar(255) not null,
+    activeWarehouses bigint not null,
+    totalCapacity bigint not null,
+    primary key (location)
+);
+
+insert into location_usage (location, activeWarehouses, totalCapacity)
+select location, count(*), coalesce(sum(capacity), 0) from warehouse
+where location is not null
+group by location;
@@ -0,0 +1,10 @@
+-- The last write-ahead log segment of store stock deltas committed by each instance, keyed by the
+-- instance id kept in its log directory rather than the directory path, which containers share.
+-- Updated in the transaction applying the deltas, so a segment left on disk after a crash is
+-- replayed only when its deltas never reached the store table.
+
+create table store_stock_log (
+    instance varchar(255) not null,
+    segment bigint not null,
+    primary key (instance)
+);
@@ -0,0 +1,101 @@
+package com.fulfilment.application.monolith;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the startup time and resident memory of the packaged application against its targets:
+ *
+ * <ul>
+ *   <li>native image ({@code mvn -Pnative verify}): started within 250 ms, at most 128 MB resident
+ *       after serving a request;
+ *   <li>JVM ({@code mvn verify}, against {@code quarkus-run.jar}): started within 15 s, at most 512
+ *       MB resident.
+ * </ul>
+ *
+ * <p>Both include applying the migrations to an empty database. The targets can be overridden with
+ * {@code -Dstartup.max-millis} and {@code -Dstartup.max-rss-mb}, e.g. on slower CI machines.
+ */
+@QuarkusIntegrationTest
+public class StartupIT {
+
+  private static final Pattern STARTED = Pattern.compile(" started in (\\d+\\.\\d+)s");
+
+  private static final boolean NATIVE = System.getProperty("native.image.path") != null;
+
+  @Test
+  public void startsWithinTarget() throws IOException {
+    long target = Long.getLong("startup.max-millis", NATIVE ? 250 : 15_000);
+
+    long startupMillis = startupMillis();
+
+    assertTrue(
+        startupMillis <= target,
+        "Started in " + startupMillis + " ms, the target is " + target + " ms");
+  }
+
+  @Test
+  public void staysWithinResidentMemoryTarget() throws IOException {
+    long targetMb = Long.getLong("startup.max-rss-mb", NATIVE ? 128 : 512);
+    given().when().get("warehouse").then().statusCode(200);
+
+    long residentMb = residentBytes(application()) / (1024 * 1024);
+
+    assertTrue(
+        residentMb <= targetMb,
+        "Resident " + residentMb + " MB after a request, the target is " + targetMb + " MB");
+  }
+
+  // as reported by Quarkus in the log of the application, which the extension captures
+  private static long startupMillis() throws IOException {
+    Path log = Path.of("target", "quarkus.log");
+    for (String line : Files.readAllLines(log)) {
+      Matcher matcher = STARTED.matcher(line);
+      if (matcher.find()) {
+        return Math.round(Double.parseDouble(matcher.group(1)) * 1000);
+      }
+    }
+    throw new AssertionError("No startup time in " + log);
+  }
+
+  // the application is launched by this JVM, as the native runner or with the quarkus-run.jar
+  private static ProcessHandle application() {
+    ProcessHandle application =
+        ProcessHandle.current()
+            .descendants()
+            .filter(
+                process ->
+                    process
+                        .info()
+                        .commandLine()
+                        .filter(
+                            command ->
+                                command.contains("quarkus-run.jar") || command.contains("-runner"))
+                        .isPresent())
+            .findFirst()
+            .orElse(null);
+    assertNotNull(application, "The application process was not found");
+    return application;
+  }
+
+  private static long residentBytes(ProcessHandle process) throws IOException {
+    List<String> status =
+        Files.readAllLines(Path.of("/proc", Long.toString(process.pid()), "status"));
+    for (String line : status) {
+      if (line.startsWith("VmRSS:")) {
+        return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+      }
+    }
+    throw new AssertionError("No VmRSS for process " + process.pid());
+  }
+}
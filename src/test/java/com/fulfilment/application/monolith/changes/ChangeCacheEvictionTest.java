@@ -0,0 +1,65 @@
+package com.fulfilment.application.monolith.changes;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class ChangeCacheEvictionTest {
+
+  @Inject AgroalDataSource dataSource;
+  @Inject ChangeFeed changeFeed;
+  @Inject ChangeCacheEviction eviction;
+
+  @Test
+  public void testStoreChangedOnAnotherInstanceIsEvicted() throws Exception {
+    int id =
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\":\"CACHED ELSEWHERE\",\"quantityProductsInStock\":1}")
+            .when()
+            .post("store")
+            .then()
+            .statusCode(201)
+            .extract()
+            .path("id");
+    // cached on this instance
+    given().when().get("store/" + id).then().statusCode(200).body("quantityProductsInStock", is(1));
+    given().when().get("store").then().statusCode(200);
+
+    // Another instance changes the store, bypassing Hibernate here, and records its change:
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement update =
+            connection.prepareStatement(
+                "update store set quantityProductsInStock = 9 where id = ?");
+        PreparedStatement record =
+            connection.prepareStatement(
+                "insert into change_event (id, entityType, entityKey, type) select"
+                    + " coalesce(min(id), 0) - 1, 'STORE', ?, 'UPDATED' from change_event")) {
+      update.setLong(1, id);
+      update.executeUpdate();
+      record.setString(1, String.valueOf(id));
+      record.executeUpdate();
+    }
+    changeFeed.sequencePending();
+
+    eviction.evictChanged();
+
+    // the store and the cached list are read again:
+    given().when().get("store/" + id).then().statusCode(200).body("quantityProductsInStock", is(9));
+    given()
+        .when()
+        .get("store")
+        .then()
+        .statusCode(200)
+        .body("findAll { it.id == " + id + " }.quantityProductsInStock", hasItem(9));
+  }
+}
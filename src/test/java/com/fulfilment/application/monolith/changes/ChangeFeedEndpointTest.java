@@ -0,0 +1,149 @@
+package com.fulfilment.application.monolith.changes;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class ChangeFeedEndpointTest {
+
+  private static final String PATH = "changes";
+
+  @Test
+  public void testChangesAreReadInOrderAfterAPosition() {
+    long start = head();
+
+    int id =
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\":\"FEED\",\"quantityProductsInStock\":1}")
+            .when()
+            .post("store")
+            .then()
+            .statusCode(201)
+            .extract()
+            .path("id");
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"name\":\"FEED\",\"quantityProductsInStock\":7}")
+        .when()
+        .put("store/" + id)
+        .then()
+        .statusCode(200);
+    given().when().delete("store/" + id).then().statusCode(204);
+
+    List<JsonPath> changes = collect(start, "STORE", String.valueOf(id), 3);
+
+    assertEquals("CREATED", changes.get(0).getString("type"));
+    assertEquals("UPDATED", changes.get(1).getString("type"));
+    assertEquals(7, changes.get(1).getInt("data.quantityProductsInStock"));
+    assertEquals("DELETED", changes.get(2).getString("type"));
+    assertTrue(changes.get(0).getLong("position") < changes.get(1).getLong("position"));
+    assertTrue(changes.get(1).getLong("position") < changes.get(2).getLong("position"));
+  }
+
+  @Test
+  public void testLongPollIsAnsweredWhenAChangeIsNumbered() throws Exception {
+    long start = head();
+
+    // waits for the change made below, rather than returning the empty page right away
+    CompletableFuture<Response> poll =
+        CompletableFuture.supplyAsync(
+            () ->
+                given()
+                    .queryParam("after", start)
+                    .queryParam("wait", 30)
+                    .when()
+                    .get(PATH)
+                    .then()
+                    .statusCode(200)
+                    .extract()
+                    .response());
+    Thread.sleep(500);
+
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"delta\":-1}")
+        .when()
+        .post("warehouse/3/stock")
+        .then()
+        .statusCode(200);
+
+    Response response = poll.get();
+    List<JsonPath> changes = lines(response);
+    assertTrue(!changes.isEmpty());
+    assertEquals(
+        changes.get(changes.size() - 1).getLong("position"),
+        Long.parseLong(response.header("Change-Position")));
+
+    JsonPath adjusted = collect(start, "WAREHOUSE", "MWH.023", 1).get(0);
+    assertEquals("UPDATED", adjusted.getString("type"));
+    assertEquals(26, adjusted.getInt("data.stock"));
+
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"delta\":1}")
+        .when()
+        .post("warehouse/3/stock")
+        .then()
+        .statusCode(200);
+  }
+
+  @Test
+  public void testInvalidPositionIsRejected() {
+    given().queryParam("after", -1).when().get(PATH).then().statusCode(400);
+  }
+
+  /** The position of the latest numbered change. */
+  private static long head() {
+    long position = 0;
+    while (true) {
+      Response response =
+          given().queryParam("after", position).queryParam("limit", 1000).when().get(PATH);
+      long next = Long.parseLong(response.header("Change-Position"));
+      if (next == position) {
+        return position;
+      }
+      position = next;
+    }
+  }
+
+  /** The first {@code count} changes of the entity after the position, waiting for them. */
+  private static List<JsonPath> collect(long after, String entityType, String key, int count) {
+    List<JsonPath> changes = new ArrayList<>();
+    long position = after;
+    while (changes.size() < count) {
+      Response response =
+          given().queryParam("after", position).queryParam("wait", 10).when().get(PATH);
+      List<JsonPath> page = lines(response);
+      assertTrue(!page.isEmpty(), "No change after position " + position);
+      for (JsonPath change : page) {
+        if (entityType.equals(change.getString("entityType"))
+            && key.equals(change.getString("entityKey"))) {
+          changes.add(change);
+        }
+      }
+      position = Long.parseLong(response.header("Change-Position"));
+    }
+    return changes;
+  }
+
+  private static List<JsonPath> lines(Response response) {
+    List<JsonPath> changes = new ArrayList<>();
+    for (String line : response.asString().split("\n")) {
+      if (!line.isBlank()) {
+        changes.add(JsonPath.from(line));
+      }
+    }
+    return changes;
+  }
+}
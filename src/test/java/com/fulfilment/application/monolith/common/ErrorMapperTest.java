@@ -0,0 +1,54 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException.Reason;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ErrorMapperTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private ErrorMapper mapper;
+
+  @BeforeEach
+  public void setup() {
+    mapper = new ErrorMapper();
+    mapper.clientLogEvery = 100;
+  }
+
+  @Test
+  public void testRejectionIsReportedWithItsStatus() throws Exception {
+    Response response =
+        mapper.toResponse(
+            new WarehouseRejectedException(
+                Reason.STOCK_OUT_OF_RANGE, "Stock \"-1\" is out\nof range"));
+
+    assertEquals(409, response.getStatus());
+    JsonNode body = objectMapper.readTree((String) response.getEntity());
+    assertEquals(WarehouseRejectedException.class.getName(), body.get("exceptionType").asText());
+    assertEquals(409, body.get("code").asInt());
+    assertEquals("Stock \"-1\" is out\nof range", body.get("error").asText());
+  }
+
+  @Test
+  public void testUnexpectedFailureIsAServerError() throws Exception {
+    Response response = mapper.toResponse(new IllegalStateException());
+
+    assertEquals(500, response.getStatus());
+    JsonNode body = objectMapper.readTree((String) response.getEntity());
+    assertEquals(IllegalStateException.class.getName(), body.get("exceptionType").asText());
+    assertEquals(500, body.get("code").asInt());
+    assertEquals(null, body.get("error"));
+  }
+
+  @Test
+  public void testRejectionsCarryNoStackTrace() {
+    assertEquals(
+        0, new RequestRejectedException("Invalid page size: 0", 400).getStackTrace().length);
+  }
+}
@@ -0,0 +1,81 @@
+package com.fulfilment.application.monolith.common;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class IdempotencyKeyEndpointTest {
+
+  @Test
+  public void testRetriedCreateIsReplayed() {
+    final String path = "store";
+    final String body = "{\"name\":\"IDEMPOTENT\",\"quantityProductsInStock\":2}";
+
+    // The first attempt creates the store:
+    int id =
+        given()
+            .contentType(ContentType.JSON)
+            .header(IdempotencyKeyFilter.HEADER, "store-retry-1")
+            .body(body)
+            .when()
+            .post(path)
+            .then()
+            .statusCode(201)
+            .header(IdempotencyKeyFilter.REPLAYED_HEADER, nullValue())
+            .extract()
+            .path("id");
+
+    // The retry is answered with the same response, the name would otherwise be a duplicate:
+    given()
+        .contentType(ContentType.JSON)
+        .header(IdempotencyKeyFilter.HEADER, "store-retry-1")
+        .body(body)
+        .when()
+        .post(path)
+        .then()
+        .statusCode(201)
+        .header(IdempotencyKeyFilter.REPLAYED_HEADER, is("true"))
+        .body("id", is(id), "name", is("IDEMPOTENT"));
+
+    // The key cannot be reused for another request:
+    given()
+        .contentType(ContentType.JSON)
+        .header(IdempotencyKeyFilter.HEADER, "store-retry-1")
+        .body("{\"name\":\"OTHER\"}")
+        .when()
+        .post(path)
+        .then()
+        .statusCode(422);
+  }
+
+  @Test
+  public void testFailedAttemptReleasesTheKey() {
+    final String path = "store";
+
+    // Rejected, so the key is given up:
+    given()
+        .contentType(ContentType.JSON)
+        .header(IdempotencyKeyFilter.HEADER, "store-retry-2")
+        .body("{\"id\":99,\"name\":\"RELEASED\"}")
+        .when()
+        .post(path)
+        .then()
+        .statusCode(422);
+
+    // and the corrected retry runs:
+    given()
+        .contentType(ContentType.JSON)
+        .header(IdempotencyKeyFilter.HEADER, "store-retry-2")
+        .body("{\"name\":\"RELEASED\"}")
+        .when()
+        .post(path)
+        .then()
+        .statusCode(201)
+        .header(IdempotencyKeyFilter.REPLAYED_HEADER, nullValue());
+  }
+}
@@ -0,0 +1,70 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class IdempotencyKeysTest {
+
+  @Inject IdempotencyKeys keys;
+
+  @Test
+  public void testAbandonedKeyIsTakenOverOnce() throws Exception {
+    final String key = "abandoned-takeover";
+    LocalDateTime abandonedAt = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MICROS);
+    QuarkusTransaction.requiringNew()
+        .run(() -> new IdempotencyRecord(key, "POST /store#0", abandonedAt).persist());
+
+    // Both retries find the claim abandoned, only one of them may run the request:
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<IdempotencyRecord>> claims = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        claims.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return keys.claim(key, "POST /store#1");
+                }));
+      }
+      start.countDown();
+
+      int holders = 0;
+      for (Future<IdempotencyRecord> claim : claims) {
+        if (claim.get() == null) {
+          holders++;
+        }
+      }
+      assertEquals(1, holders);
+    } finally {
+      executor.shutdown();
+      keys.release(key);
+    }
+  }
+
+  @Test
+  public void testResponseOfAKeyPurgedMeanwhileIsNotStored() {
+    final String key = "purged-meanwhile";
+    assertNull(keys.claim(key, "POST /store#0"));
+    // purged or released while the request was running
+    keys.release(key);
+
+    keys.complete(key, 201, "application/json", "{}");
+
+    assertNull(QuarkusTransaction.requiringNew().call(() -> IdempotencyRecord.findById(key)));
+  }
+}
@@ -0,0 +1,100 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException;
+import com.fulfilment.application.monolith.warehouses.domain.exceptions.WarehouseRejectedException.Reason;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import jakarta.interceptor.InvocationContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MeteredOperationInterceptorTest {
+
+  private SimpleMeterRegistry registry;
+  private MeteredOperationInterceptor interceptor;
+  private InvocationContext context;
+
+  @BeforeEach
+  public void setup() {
+    registry = new SimpleMeterRegistry();
+    interceptor = new MeteredOperationInterceptor();
+    interceptor.registry = registry;
+    context = mock(InvocationContext.class);
+    MeteredOperation binding = mock(MeteredOperation.class);
+    when(binding.value()).thenReturn("warehouse.create");
+    when(context.getInterceptorBinding(MeteredOperation.class)).thenReturn(binding);
+  }
+
+  @Test
+  public void testSuccessIsTimed() throws Exception {
+    when(context.proceed()).thenReturn("ok");
+
+    assertEquals("ok", interceptor.meter(context));
+
+    assertEquals(
+        1,
+        registry
+            .get("operation.duration")
+            .tags("operation", "warehouse.create", "outcome", "success", "reason", "none")
+            .timer()
+            .count());
+  }
+
+  @Test
+  public void testRejectionIsTaggedWithReason() throws Exception {
+    when(context.proceed())
+        .thenThrow(new WarehouseRejectedException(Reason.LOCATION_CAPACITY_LIMIT, "full"));
+
+    assertThrows(WarehouseRejectedException.class, () -> interceptor.meter(context));
+
+    assertEquals(
+        1,
+        registry
+            .get("operation.duration")
+            .tags("outcome", "rejected", "reason", "LOCATION_CAPACITY_LIMIT")
+            .timer()
+            .count());
+    assertEquals(
+        1.0,
+        registry
+            .get("operation.rejections")
+            .tags("operation", "warehouse.create", "reason", "LOCATION_CAPACITY_LIMIT")
+            .counter()
+            .count());
+  }
+
+  @Test
+  public void testUnexpectedFailureIsCountedAsError() throws Exception {
+    when(context.proceed()).thenThrow(new IllegalStateException("boom"));
+
+    assertThrows(IllegalStateException.class, () -> interceptor.meter(context));
+
+    assertEquals(1, registry.get("operation.duration").tags("outcome", "error").timer().count());
+  }
+
+  @Test
+  public void testReactiveOperationIsTimedWhenItEmits() throws Exception {
+    when(context.proceed())
+        .thenReturn(
+            Uni.createFrom()
+                .failure(new WarehouseRejectedException(Reason.STOCK_OUT_OF_RANGE, "full")));
+
+    Uni<?> result = (Uni<?>) interceptor.meter(context);
+    assertTrue(registry.find("operation.duration").timers().isEmpty());
+
+    assertThrows(WarehouseRejectedException.class, () -> result.await().indefinitely());
+    assertEquals(
+        1,
+        registry
+            .get("operation.duration")
+            .tags("outcome", "rejected", "reason", "STOCK_OUT_OF_RANGE")
+            .timer()
+            .count());
+  }
+}
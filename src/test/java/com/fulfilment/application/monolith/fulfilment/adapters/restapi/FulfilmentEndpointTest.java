@@ -0,0 +1,243 @@
+package com.fulfilment.application.monolith.fulfilment.adapters.restapi;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+import com.fulfilment.application.monolith.fulfilment.domain.models.FulfilmentLimits;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class FulfilmentEndpointTest {
+
+  @Inject AssignmentStore assignmentStore;
+
+  @Test
+  public void testLimitsAreEnforced() {
+    long store = createStore("FUL-LIMITS");
+    long product = createProduct("FUL-LIMITS-P");
+    String first = createWarehouse("FUL.L1", "AMSTERDAM-002");
+    String second = createWarehouse("FUL.L2", "AMSTERDAM-002");
+    String third = createWarehouse("FUL.L3", "AMSTERDAM-002");
+
+    assign(product, store, first).then().statusCode(201);
+    assign(product, store, first).then().statusCode(409);
+    assign(product, store, second).then().statusCode(201);
+    assign(product, store, third)
+        .then()
+        .statusCode(400)
+        .body(containsString("already fulfilled by 2 warehouses"));
+
+    given().when().get("fulfilment/store/" + store).then().statusCode(200).body("$", hasSize(2));
+
+    given()
+        .when()
+        .delete("fulfilment/store/" + store + "/product/" + product + "/warehouse/" + first)
+        .then()
+        .statusCode(204);
+    assign(product, store, third).then().statusCode(201);
+  }
+
+  @Test
+  public void testConcurrentAssignmentsDoNotExceedLimits() throws Exception {
+    long store = createStore("FUL-CONCURRENT");
+    List<Long> products = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      products.add(createProduct("FUL-CONCURRENT-P" + i));
+    }
+    List<String> warehouses =
+        List.of("MWH.001", "MWH.012", "MWH.023", createWarehouse("FUL.001", "AMSTERDAM-001"));
+
+    ExecutorService executor = Executors.newFixedThreadPool(12);
+    try {
+      List<Future<Integer>> statuses = new ArrayList<>();
+      for (long product : products) {
+        for (String warehouse : warehouses) {
+          statuses.add(
+              executor.submit(
+                  () -> assign(product, store, warehouse).then().extract().statusCode()));
+        }
+      }
+      for (Future<Integer> status : statuses) {
+        int code = status.get();
+        assertTrue(code == 201 || code == 400, "unexpected status " + code);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    List<Map<String, Object>> assignments =
+        given().when().get("fulfilment/store/" + store).then().extract().jsonPath().getList("$");
+    Set<Object> storeWarehouses = new HashSet<>();
+    Map<Object, Integer> warehousesPerProduct = new HashMap<>();
+    for (Map<String, Object> assignment : assignments) {
+      storeWarehouses.add(assignment.get("businessUnitCode"));
+      warehousesPerProduct.merge(assignment.get("productId"), 1, Integer::sum);
+    }
+    assertTrue(storeWarehouses.size() <= 3, "store uses " + storeWarehouses);
+    warehousesPerProduct.values().forEach(count -> assertTrue(count <= 2));
+    // every product fits in the three warehouses the store ends up with
+    assertEquals(6, warehousesPerProduct.size());
+  }
+
+  @Test
+  public void testAssignmentsGoWithTheirWarehouseProductOrStore() {
+    long store = createStore("FUL-RELEASE");
+    long product = createProduct("FUL-RELEASE-P");
+    long other = createProduct("FUL-RELEASE-Q");
+    String first = createWarehouse("FUL.R1", "EINDHOVEN-001");
+    String second = createWarehouse("FUL.R2", "EINDHOVEN-001");
+    String third = createWarehouse("FUL.R3", "HELMOND-001");
+    assign(product, store, first).then().statusCode(201);
+    assign(product, store, second).then().statusCode(201);
+    assign(other, store, third).then().statusCode(201);
+
+    given().when().delete("warehouse/" + warehouseId(third)).then().statusCode(204);
+    given().when().get("fulfilment/store/" + store).then().statusCode(200).body("$", hasSize(2));
+    // the archived warehouse no longer counts against the three of the store
+    assign(other, store, createWarehouse("FUL.R4", "HELMOND-001")).then().statusCode(201);
+
+    given().when().delete("product/" + product).then().statusCode(204);
+    given().when().get("fulfilment/store/" + store).then().statusCode(200).body("$", hasSize(1));
+
+    given().when().delete("store/" + store).then().statusCode(204);
+    given().when().get("fulfilment/store/" + store).then().statusCode(200).body("$", hasSize(0));
+  }
+
+  @Test
+  public void testStoreDeletedDuringAnAssignmentTakesTheAssignmentAlong() throws Exception {
+    long store = createStore("FUL-RACE");
+    long product = createProduct("FUL-RACE-P");
+    String warehouse = "MWH.012";
+    CountDownLatch looked = new CountDownLatch(1);
+    CountDownLatch deleting = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> assignment =
+          executor.submit(
+              () ->
+                  QuarkusTransaction.requiringNew()
+                      .run(
+                          () -> {
+                            assignmentStore.findExistingProductIds(List.of(product));
+                            assignmentStore.findExistingStoreIds(List.of(store));
+                            assignmentStore.findActiveBusinessUnitCodes(List.of(warehouse));
+                            looked.countDown();
+                            await(deleting);
+                            assertNull(
+                                assignmentStore.assign(
+                                    new Assignment(product, store, warehouse),
+                                    FulfilmentLimits.DEFAULT));
+                          }));
+      await(looked);
+      Future<Integer> deletion =
+          executor.submit(
+              () -> given().when().delete("store/" + store).then().extract().statusCode());
+      // the delete waits for the assignment to commit, then releases it
+      Thread.sleep(500);
+      assertFalse(deletion.isDone());
+      deleting.countDown();
+      assignment.get(10, TimeUnit.SECONDS);
+      assertEquals(204, deletion.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdown();
+    }
+
+    given().when().get("fulfilment/store/" + store).then().statusCode(200).body("$", hasSize(0));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static io.restassured.response.Response assign(
+      long product, long store, String businessUnitCode) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body(Map.of("productId", product, "storeId", store, "businessUnitCode", businessUnitCode))
+        .when()
+        .post("fulfilment");
+  }
+
+  private static long createStore(String name) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body(Map.of("name", name, "quantityProductsInStock", 1))
+        .when()
+        .post("store")
+        .then()
+        .statusCode(201)
+        .extract()
+        .jsonPath()
+        .getLong("id");
+  }
+
+  private static long createProduct(String name) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body(Map.of("name", name, "stock", 1))
+        .when()
+        .post("product")
+        .then()
+        .statusCode(201)
+        .extract()
+        .jsonPath()
+        .getLong("id");
+  }
+
+  private static String createWarehouse(String businessUnitCode, String location) {
+    given()
+        .contentType(ContentType.JSON)
+        .body(
+            Map.of(
+                "businessUnitCode",
+                businessUnitCode,
+                "location",
+                location,
+                "capacity",
+                10,
+                "stock",
+                1))
+        .when()
+        .post("warehouse")
+        .then()
+        .statusCode(200);
+    return businessUnitCode;
+  }
+
+  private static String warehouseId(String businessUnitCode) {
+    return given()
+        .when()
+        .get("warehouse")
+        .then()
+        .statusCode(200)
+        .extract()
+        .path("find { it.businessUnitCode == '" + businessUnitCode + "' }.id");
+  }
+}
@@ -0,0 +1,107 @@
+package com.fulfilment.application.monolith.fulfilment.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException;
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException.Reason;
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+import com.fulfilment.application.monolith.fulfilment.domain.models.FulfilmentLimits;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore.ConcurrentAssignmentException;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class AssignFulfilmentUseCaseTest {
+
+  @Mock private AssignmentStore assignmentStore;
+
+  private AssignFulfilmentUseCase useCase;
+
+  @BeforeEach
+  void setUp() {
+    useCase = new AssignFulfilmentUseCase(assignmentStore);
+  }
+
+  @Test
+  void testAssign_RecordsAgainstDefaultLimits() {
+    givenExistingParties();
+    Assignment assignment = new Assignment(1L, 2L, "MWH.001");
+
+    useCase.assign(assignment);
+
+    assertNotNull(assignment.createdAt);
+    verify(assignmentStore).assign(assignment, FulfilmentLimits.DEFAULT);
+  }
+
+  @Test
+  void testAssign_IncompleteAssignment_ShouldThrow400() {
+    AssignmentRejectedException exception =
+        assertThrows(
+            AssignmentRejectedException.class,
+            () -> useCase.assign(new Assignment(1L, null, "MWH.001")));
+
+    assertEquals(400, exception.getResponse().getStatus());
+    verify(assignmentStore, never()).assign(any(), any());
+  }
+
+  @Test
+  void testAssign_UnknownStore_ShouldThrow404() {
+    when(assignmentStore.findExistingProductIds(anyCollection())).thenReturn(Set.of(1L));
+    when(assignmentStore.findExistingStoreIds(anyCollection())).thenReturn(Set.of());
+
+    AssignmentRejectedException exception =
+        assertThrows(
+            AssignmentRejectedException.class,
+            () -> useCase.assign(new Assignment(1L, 2L, "MWH.001")));
+
+    assertEquals(Reason.STORE_NOT_FOUND, exception.reason);
+    assertEquals(404, exception.getResponse().getStatus());
+  }
+
+  @Test
+  void testAssign_LimitReached_ShouldThrow400() {
+    givenExistingParties();
+    when(assignmentStore.assign(any(), any())).thenReturn(Reason.STORE_WAREHOUSE_LIMIT);
+
+    AssignmentRejectedException exception =
+        assertThrows(
+            AssignmentRejectedException.class,
+            () -> useCase.assign(new Assignment(1L, 2L, "MWH.001")));
+
+    assertEquals(400, exception.getResponse().getStatus());
+    assertEquals("Store 2 is already fulfilled by 3 warehouses", exception.getMessage());
+  }
+
+  @Test
+  void testAssign_Deadlock_ShouldThrow409() {
+    givenExistingParties();
+    when(assignmentStore.assign(any(), any()))
+        .thenThrow(new ConcurrentAssignmentException(new RuntimeException()));
+
+    AssignmentRejectedException exception =
+        assertThrows(
+            AssignmentRejectedException.class,
+            () -> useCase.assign(new Assignment(1L, 2L, "MWH.001")));
+
+    assertEquals(409, exception.getResponse().getStatus());
+  }
+
+  private void givenExistingParties() {
+    when(assignmentStore.findExistingProductIds(anyCollection())).thenReturn(Set.of(1L));
+    when(assignmentStore.findExistingStoreIds(anyCollection())).thenReturn(Set.of(2L));
+    when(assignmentStore.findActiveBusinessUnitCodes(anyCollection()))
+        .thenReturn(Set.of("MWH.001"));
+  }
+}
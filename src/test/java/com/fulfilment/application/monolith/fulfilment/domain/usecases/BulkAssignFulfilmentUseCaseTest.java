@@ -0,0 +1,65 @@
+package com.fulfilment.application.monolith.fulfilment.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.fulfilment.domain.exceptions.AssignmentRejectedException.Reason;
+import com.fulfilment.application.monolith.fulfilment.domain.models.Assignment;
+import com.fulfilment.application.monolith.fulfilment.domain.models.AssignmentResult;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.AssignmentStore;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkAssignFulfilmentUseCaseTest {
+
+  @Mock private AssignmentStore assignmentStore;
+
+  private BulkAssignFulfilmentUseCase useCase;
+
+  @BeforeEach
+  void setUp() {
+    useCase = new BulkAssignFulfilmentUseCase(assignmentStore);
+  }
+
+  @Test
+  void testAssignAll_LooksUpPartiesOnceAndReportsPerItem() {
+    when(assignmentStore.findExistingProductIds(anyCollection())).thenReturn(Set.of(1L, 2L));
+    when(assignmentStore.findExistingStoreIds(anyCollection())).thenReturn(Set.of(10L));
+    when(assignmentStore.findActiveBusinessUnitCodes(anyCollection()))
+        .thenReturn(Set.of("MWH.001"));
+    when(assignmentStore.assign(any(), any()))
+        .thenReturn(null)
+        .thenReturn(Reason.PRODUCT_STORE_WAREHOUSE_LIMIT);
+
+    List<AssignmentResult> results =
+        useCase.assignAll(
+            List.of(
+                new Assignment(1L, 10L, "MWH.001"),
+                new Assignment(2L, 10L, "MWH.001"),
+                new Assignment(3L, 10L, "MWH.001"),
+                new Assignment(1L, 11L, "MWH.001"),
+                new Assignment(1L, 10L, "MWH.999"),
+                new Assignment(null, 10L, "MWH.001")));
+
+    assertEquals(6, results.size());
+    assertNull(results.get(0).error);
+    assertTrue(results.get(1).error.startsWith("Product 2 is already fulfilled by 2 warehouses"));
+    assertTrue(results.get(2).error.startsWith("Product does not exist"));
+    assertTrue(results.get(3).error.startsWith("Store does not exist"));
+    assertTrue(results.get(4).error.startsWith("Active warehouse not found"));
+    assertTrue(results.get(5).error.startsWith("Assignment requires"));
+    verify(assignmentStore, times(2)).assign(any(), any());
+  }
+}
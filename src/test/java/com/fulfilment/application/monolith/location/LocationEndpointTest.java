@@ -0,0 +1,65 @@
+package com.fulfilment.application.monolith.location;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class LocationEndpointTest {
+
+  private static final String ZWOLLE = "find { it.location == 'ZWOLLE-002' }";
+
+  @Test
+  public void testUtilisationFollowsCreateAndArchive() {
+    final String path = "location/utilisation";
+
+    JsonPath before = given().when().get(path).then().statusCode(200).extract().jsonPath();
+    int warehouses = before.getInt(ZWOLLE + ".activeWarehouses");
+    int capacity = before.getInt(ZWOLLE + ".totalCapacity");
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(
+            "{\"businessUnitCode\":\"MWH.UTIL\",\"location\":\"ZWOLLE-002\","
+                + "\"capacity\":20,\"stock\":5}")
+        .when()
+        .post("warehouse")
+        .then()
+        .statusCode(200);
+
+    // The new warehouse counts towards its location:
+    given()
+        .when()
+        .get(path)
+        .then()
+        .statusCode(200)
+        .body(
+            ZWOLLE + ".activeWarehouses", is(warehouses + 1),
+            ZWOLLE + ".totalCapacity", is(capacity + 20),
+            ZWOLLE + ".maxNumberOfWarehouses", is(2),
+            ZWOLLE + ".maxCapacity", is(50));
+
+    // and no longer once archived:
+    String id =
+        given()
+            .when()
+            .get("warehouse")
+            .then()
+            .statusCode(200)
+            .extract()
+            .path("find { it.businessUnitCode == 'MWH.UTIL' }.id");
+    given().when().delete("warehouse/" + id).then().statusCode(204);
+    given()
+        .when()
+        .get(path)
+        .then()
+        .statusCode(200)
+        .body(
+            ZWOLLE + ".activeWarehouses", is(warehouses),
+            ZWOLLE + ".totalCapacity", is(capacity));
+  }
+}
@@ -4,7 +4,11 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class LocationGatewayTest {
 
@@ -32,4 +36,25 @@ public class LocationGatewayTest {
     Location location = locationGateway.resolveByIdentifier("DOES-NOT-EXIST");
     assertNull(location);
   }
+
+  @Test
+  public void testWhenResolveNullIdentifierShouldReturnNull() {
+    LocationGateway locationGateway = new LocationGateway();
+    assertNull(locationGateway.resolveByIdentifier(null));
+  }
+
+  @Test
+  public void testWhenReloadFromFileShouldSwapRegistry(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("locations.csv");
+    Files.writeString(file, "# comment\nUTRECHT-001,4,120\n");
+    LocationGateway locationGateway = new LocationGateway();
+    locationGateway.registryFile = Optional.of(file.toString());
+
+    assertEquals(1, locationGateway.reload());
+
+    Location location = locationGateway.resolveByIdentifier("UTRECHT-001");
+    assertEquals(4, location.maxNumberOfWarehouses);
+    assertEquals(120, location.maxCapacity);
+    assertNull(locationGateway.resolveByIdentifier("ZWOLLE-001"));
+  }
 }
@@ -2,9 +2,13 @@ package com.fulfilment.application.monolith.products;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.core.IsNot.not;
 
 import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
@@ -33,4 +37,84 @@ public class ProductEndpointTest {
         .statusCode(200)
         .body(not(containsString("TONSTAD")), containsString("KALLAX"), containsString("BESTÅ"));
   }
+
+  @Test
+  public void testPagedAndStreamedProducts() {
+    final String path = "product";
+
+    // A page holds at most `limit` products, the next one starts after the given id:
+    given().when().get(path + "?limit=1").then().statusCode(200).body("$", hasSize(1));
+    given()
+        .when()
+        .get(path + "?limit=1&after=2")
+        .then()
+        .statusCode(200)
+        .body("$", hasSize(1), "[0].name", is("BESTÅ"));
+    given().when().get(path + "?limit=0").then().statusCode(400);
+
+    // The stream writes one product per line:
+    given()
+        .when()
+        .get(path + "/stream")
+        .then()
+        .statusCode(200)
+        .contentType(startsWith("application/x-ndjson"))
+        .body(containsString("KALLAX"), containsString("BESTÅ"));
+  }
+
+  @Test
+  public void testSearchProducts() {
+    final String path = "product";
+
+    int id =
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\":\"SEARCH LAMP\",\"price\":19.99,\"stock\":4}")
+            .when()
+            .post(path)
+            .then()
+            .statusCode(201)
+            .extract()
+            .path("id");
+
+    // Found by part of its name, ignoring case, within a price range and in stock:
+    given()
+        .when()
+        .get(path + "/search?name=h lam&minPrice=10&maxPrice=20&inStock=true")
+        .then()
+        .statusCode(200)
+        .body("$", hasSize(1), "[0].id", is(id), "[0].price", is(19.99f));
+    given().when().get(path + "/search?name=lamp&match=prefix").then().body("$", hasSize(0));
+    given().when().get(path + "/search?name=sea&match=prefix").then().body("[0].id", is(id));
+    given().when().get(path + "/search?name=lamp&maxPrice=19").then().body("$", hasSize(0));
+    // a bound beyond any price is no error:
+    given()
+        .when()
+        .get(path + "/search?name=lamp&maxPrice=1e20")
+        .then()
+        .statusCode(200)
+        .body("[0].id", is(id));
+
+    // and by its new name once changed:
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"name\":\"SEARCH DESK\",\"price\":19.99,\"stock\":0}")
+        .when()
+        .put(path + "/" + id)
+        .then()
+        .statusCode(200);
+    given().when().get(path + "/search?name=lamp").then().body("$", hasSize(0));
+    given()
+        .when()
+        .get(path + "/search?name=desk&inStock=true")
+        .then()
+        .statusCode(200)
+        .body("$", hasSize(0));
+    given().when().get(path + "/search?name=desk").then().body("[0].id", is(id));
+
+    given().when().delete(path + "/" + id).then().statusCode(204);
+    given().when().get(path + "/search?name=desk").then().body("$", hasSize(0));
+
+    given().when().get(path + "/search?match=exact").then().statusCode(400);
+  }
 }
@@ -0,0 +1,89 @@
+package com.fulfilment.application.monolith.products;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import com.fulfilment.application.monolith.products.ProductSearchIndex.Query;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProductSearchIndexTest {
+
+  private ProductSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new ProductSearchIndex();
+    index.put(1L, "TONSTAD", new BigDecimal("99.00"), 10);
+    index.put(2L, "KALLAX", new BigDecimal("49.95"), 0);
+    index.put(3L, "BESTÅ", null, 3);
+    index.put(4L, "KALLAX INSERT", new BigDecimal("15.00"), 7);
+  }
+
+  @Test
+  public void testNameMatchesSubstringOrPrefixIgnoringCase() {
+    assertArrayEquals(new long[] {2, 4}, search(new Query("allax", false, null, null, false)));
+    assertArrayEquals(new long[] {4}, search(new Query("insert", false, null, null, false)));
+    assertArrayEquals(new long[] {}, search(new Query("insert", true, null, null, false)));
+    assertArrayEquals(new long[] {2, 4}, search(new Query("Ka", true, null, null, false)));
+    assertArrayEquals(new long[] {3}, search(new Query("stå", false, null, null, false)));
+    // too short for a trigram, every product is checked
+    assertArrayEquals(new long[] {1, 2}, search(new Query("a", false, null, null, false), 0, 2));
+  }
+
+  @Test
+  public void testPriceRangeAndStockFilters() {
+    assertArrayEquals(
+        new long[] {2, 4},
+        search(new Query(null, false, new BigDecimal("15"), new BigDecimal("50"), false)));
+    // a product without a price is outside any range
+    assertArrayEquals(
+        new long[] {1, 4}, search(new Query(null, false, BigDecimal.ZERO, null, true)));
+    assertArrayEquals(new long[] {4}, search(new Query("kallax", false, null, null, true)));
+  }
+
+  @Test
+  public void testBoundsBeyondTheRangeOfPricesAreClamped() {
+    assertArrayEquals(
+        new long[] {1, 2, 4},
+        search(new Query(null, false, new BigDecimal("-1e20"), new BigDecimal("1e20"), false)));
+    assertArrayEquals(
+        new long[] {}, search(new Query(null, false, new BigDecimal("1e1000000"), null, false)));
+    assertArrayEquals(
+        new long[] {}, search(new Query(null, false, null, new BigDecimal("-1e20"), false)));
+  }
+
+  @Test
+  public void testChangedAndRemovedProductsAreNoLongerFoundAsBefore() {
+    index.put(2L, "HEMNES", new BigDecimal("49.95"), 1);
+    index.remove(4L);
+
+    assertArrayEquals(new long[] {}, search(new Query("kallax", false, null, null, false)));
+    assertArrayEquals(new long[] {2}, search(new Query("hemnes", false, null, null, true)));
+  }
+
+  @Test
+  public void testCompactionKeepsTheLatestVersions() {
+    for (int i = 0; i < 5000; i++) {
+      index.put(1L, "TONSTAD " + i, new BigDecimal("99.00"), i);
+    }
+
+    assertArrayEquals(new long[] {1}, search(new Query("tonstad 4999", false, null, null, false)));
+    assertArrayEquals(new long[] {}, search(new Query("tonstad 4998", false, null, null, false)));
+    assertArrayEquals(new long[] {2, 4}, search(new Query("kallax", false, null, null, false)));
+  }
+
+  @Test
+  public void testResultsArePagedByIdAfterTheGivenOne() {
+    assertArrayEquals(new long[] {2}, search(new Query("a", false, null, null, false), 1, 1));
+    assertArrayEquals(new long[] {4}, search(new Query("kallax", false, null, null, false), 2, 10));
+  }
+
+  private long[] search(Query query) {
+    return search(query, 0, 100);
+  }
+
+  private long[] search(Query query, long afterId, int limit) {
+    return index.search(query, afterId, limit);
+  }
+}
@@ -0,0 +1,55 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LegacyStoreManagerGatewayTest {
+
+  @TempDir Path dir;
+
+  @Test
+  public void testPublishWritesWholeBatchInOrder() throws Exception {
+    LegacyStoreManagerGateway gateway = new LegacyStoreManagerGateway();
+    gateway.directory = dir.toString();
+
+    gateway.publish(
+        List.of(
+            event(1L, StoreOutboxEvent.Type.CREATED, "TONSTAD", 10),
+            event(2L, StoreOutboxEvent.Type.UPDATED, "TONSTAD", 7)));
+
+    Path file = dir.resolve("legacy-stores-1-2.txt");
+    assertTrue(Files.exists(file));
+    List<String> lines = Files.readAllLines(file);
+    assertEquals(2, lines.size());
+    assertTrue(lines.get(0).startsWith("Store created."));
+    assertTrue(lines.get(1).startsWith("Store updated."));
+    assertTrue(lines.get(1).contains("[ items on stock =7]"));
+  }
+
+  @Test
+  public void testPublishEmptyBatchWritesNothing() throws Exception {
+    LegacyStoreManagerGateway gateway = new LegacyStoreManagerGateway();
+    gateway.directory = dir.toString();
+
+    gateway.publish(List.of());
+
+    try (var files = Files.list(dir)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  private StoreOutboxEvent event(Long id, StoreOutboxEvent.Type type, String name, int stock) {
+    Store store = new Store(name);
+    store.id = 1L;
+    store.quantityProductsInStock = stock;
+    StoreOutboxEvent event = new StoreOutboxEvent(type, store);
+    event.id = id;
+    return event;
+  }
+}
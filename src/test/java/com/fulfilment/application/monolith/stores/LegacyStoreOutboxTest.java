@@ -0,0 +1,98 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class LegacyStoreOutboxTest {
+
+  @Inject LegacyStoreOutbox outbox;
+  @Inject RecordingLegacyStoreManagerGateway gateway;
+
+  @ConfigProperty(name = "legacy.outbox.batch-size")
+  int batchSize;
+
+  @BeforeEach
+  void setUp() {
+    gateway.reset();
+    QuarkusTransaction.requiringNew().run(() -> StoreOutboxEvent.deleteAll());
+  }
+
+  @Test
+  public void testFailedChangesAreRetriedInOrderAfterTheBackoff() {
+    record(1L, 10, null);
+    gateway.setFailing(true);
+    assertEquals(0, outbox.dispatchBatch());
+
+    gateway.setFailing(false);
+    record(1L, 7, null);
+    // the later change waits behind the one backing off
+    assertEquals(0, outbox.dispatchBatch());
+    assertEquals(0, gateway.published().size());
+
+    QuarkusTransaction.requiringNew()
+        .run(
+            () ->
+                StoreOutboxEvent.update(
+                    "nextAttemptAt = ?1 where nextAttemptAt is not null",
+                    LocalDateTime.now().minusSeconds(1)));
+    assertEquals(2, outbox.dispatchBatch());
+    List<StoreOutboxEvent> batch = gateway.published().get(0);
+    assertEquals(10, batch.get(0).quantityProductsInStock);
+    assertEquals(7, batch.get(1).quantityProductsInStock);
+    assertEquals(0L, QuarkusTransaction.requiringNew().call(() -> StoreOutboxEvent.count()));
+  }
+
+  @Test
+  public void testStoreBackingOffDoesNotHoldUpTheOthers() {
+    // more changes than a batch holds, all of a store backing off, ahead of another store's
+    LocalDateTime retryAt = LocalDateTime.now().plusMinutes(5);
+    QuarkusTransaction.requiringNew()
+        .run(
+            () -> {
+              for (int i = 0; i <= batchSize; i++) {
+                event(1L, i, retryAt).persist();
+              }
+            });
+    record(2L, 3, null);
+
+    outbox.dispatchPending();
+
+    assertEquals(1, gateway.published().size());
+    assertEquals(2L, gateway.published().get(0).get(0).storeId);
+    assertEquals(
+        batchSize + 1L, QuarkusTransaction.requiringNew().call(() -> StoreOutboxEvent.count()));
+  }
+
+  @Test
+  public void testBackoffDoublesUpToTheMaximum() {
+    assertEquals(Duration.ofSeconds(1), outbox.backoff(1));
+    assertEquals(Duration.ofSeconds(4), outbox.backoff(3));
+    assertEquals(Duration.ofMinutes(5), outbox.backoff(30));
+  }
+
+  private void record(Long storeId, int stock, LocalDateTime nextAttemptAt) {
+    QuarkusTransaction.requiringNew().run(event(storeId, stock, nextAttemptAt)::persist);
+  }
+
+  private StoreOutboxEvent event(Long storeId, int stock, LocalDateTime nextAttemptAt) {
+    Store store = new Store("STORE-" + storeId);
+    store.id = storeId;
+    store.quantityProductsInStock = stock;
+    StoreOutboxEvent event = new StoreOutboxEvent(StoreOutboxEvent.Type.UPDATED, store);
+    if (nextAttemptAt != null) {
+      event.attempts = 1;
+      event.nextAttemptAt = nextAttemptAt;
+    }
+    return event;
+  }
+}
@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Records the batches sent to the legacy system instead of writing them, or fails on demand. */
+@Alternative
+@Priority(1)
+@ApplicationScoped
+public class RecordingLegacyStoreManagerGateway extends LegacyStoreManagerGateway {
+
+  private final List<List<StoreOutboxEvent>> published = new ArrayList<>();
+  private boolean failing;
+
+  @Override
+  public synchronized void publish(List<StoreOutboxEvent> events) {
+    if (failing) {
+      throw new IllegalStateException("legacy system unavailable");
+    }
+    published.add(List.copyOf(events));
+  }
+
+  public synchronized List<List<StoreOutboxEvent>> published() {
+    return List.copyOf(published);
+  }
+
+  public synchronized void setFailing(boolean failing) {
+    this.failing = failing;
+  }
+
+  public synchronized void reset() {
+    published.clear();
+    failing = false;
+  }
+}
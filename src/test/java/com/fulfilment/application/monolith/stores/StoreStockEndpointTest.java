@@ -0,0 +1,117 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class StoreStockEndpointTest {
+
+  @Inject StoreStockCounters stockCounters;
+
+  @Test
+  public void testDeltasAreAddedUpUntilTheFlush() {
+    int id =
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\":\"STOCK\",\"quantityProductsInStock\":10}")
+            .when()
+            .post("store")
+            .then()
+            .statusCode(201)
+            .extract()
+            .path("id");
+
+    for (int delta : new int[] {5, -3, 20}) {
+      given()
+          .contentType(ContentType.JSON)
+          .body("{\"delta\":" + delta + "}")
+          .when()
+          .post("store/" + id + "/stock")
+          .then()
+          .statusCode(202);
+    }
+    stockCounters.flush();
+
+    given()
+        .when()
+        .get("store/" + id)
+        .then()
+        .statusCode(200)
+        .body("quantityProductsInStock", is(32));
+  }
+
+  @Test
+  public void testStoreRefusingItsDeltaDoesNotHoldUpTheOthers() {
+    int full = createStore("STOCK FULL", Integer.MAX_VALUE - 1);
+    int other = createStore("STOCK OTHER", 10);
+    addStock(full, 5).then().statusCode(202);
+    addStock(other, 3).then().statusCode(202);
+
+    // the stock of the first store would leave the range of its column
+    stockCounters.flush();
+
+    given()
+        .when()
+        .get("store/" + full)
+        .then()
+        .body("quantityProductsInStock", is(Integer.MAX_VALUE - 1));
+    given().when().get("store/" + other).then().body("quantityProductsInStock", is(13));
+
+    // the refused delta is kept and goes in with the next one
+    addStock(full, -10).then().statusCode(202);
+    stockCounters.flush();
+
+    given()
+        .when()
+        .get("store/" + full)
+        .then()
+        .body("quantityProductsInStock", is(Integer.MAX_VALUE - 6));
+  }
+
+  @Test
+  public void testDeltasBeyondTheRangeOfTheStockAreRejected() {
+    int id = createStore("STOCK RANGE", 0);
+    addStock(id, Integer.MAX_VALUE).then().statusCode(202);
+    addStock(id, 1).then().statusCode(422);
+    stockCounters.flush();
+
+    given().when().get("store/" + id).then().body("quantityProductsInStock", is(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testDeltaOfUnknownStoreIsRejected() {
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"delta\":1}")
+        .when()
+        .post("store/999999/stock")
+        .then()
+        .statusCode(404);
+  }
+
+  private static int createStore(String name, int stock) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body("{\"name\":\"" + name + "\",\"quantityProductsInStock\":" + stock + "}")
+        .when()
+        .post("store")
+        .then()
+        .statusCode(201)
+        .extract()
+        .path("id");
+  }
+
+  private static Response addStock(int id, int delta) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body("{\"delta\":" + delta + "}")
+        .when()
+        .post("store/" + id + "/stock");
+  }
+}
@@ -0,0 +1,71 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StoreStockLogTest {
+
+  @TempDir Path dir;
+
+  @Test
+  public void testReadSumsTheDeltasPerStoreUpToASegment() {
+    StoreStockLog log = new StoreStockLog(dir);
+    log.append(1L, 5);
+    log.append(2L, 3);
+    log.append(1L, -2);
+    long first = log.rotate();
+    log.append(1L, 10);
+
+    assertEquals(Map.of(1L, 3L, 2L, 3L), log.read(first));
+
+    long second = log.rotate();
+    assertEquals(Map.of(1L, 13L, 2L, 3L), log.read(second));
+
+    // committed segments are deleted, the later ones stay
+    log.release(first);
+    assertEquals(Map.of(1L, 10L), log.read(second));
+    log.close();
+  }
+
+  @Test
+  public void testReopenedLogKeepsLeftOverSegmentsAndSkipsATornRecord() throws Exception {
+    StoreStockLog crashed = new StoreStockLog(dir);
+    crashed.append(7L, 4);
+    crashed.close();
+    // half a record, as left by a crash in the middle of a write
+    Files.write(dir.resolve("store-stock-1.log"), new byte[] {0, 0, 0}, StandardOpenOption.APPEND);
+
+    StoreStockLog log = new StoreStockLog(dir);
+
+    assertEquals(2, log.segment());
+    assertEquals(Map.of(7L, 4L), log.read(log.segment() - 1));
+    log.release(log.segment() - 1);
+    assertTrue(Files.notExists(dir.resolve("store-stock-1.log")));
+    log.close();
+  }
+
+  @Test
+  public void testInstanceIdIsKeptByTheDirectoryNotDerivedFromItsPath(@TempDir Path other) {
+    StoreStockLog log = new StoreStockLog(dir);
+    String id = log.instanceId();
+    log.close();
+
+    // reopened after a restart, the log is the same instance
+    StoreStockLog reopened = new StoreStockLog(dir);
+    assertEquals(id, reopened.instanceId());
+    reopened.close();
+
+    // another directory, e.g. the same path in another container, is another instance
+    StoreStockLog another = new StoreStockLog(other);
+    assertNotEquals(id, another.instanceId());
+    another.close();
+  }
+}
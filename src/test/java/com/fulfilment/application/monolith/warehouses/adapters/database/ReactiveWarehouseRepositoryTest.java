@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class ReactiveWarehouseRepositoryTest {
+
+  @Inject WarehouseRepository warehouseRepository;
+  @Inject ReactiveWarehouseRepository reactiveWarehouseRepository;
+
+  @Test
+  public void testAdjustedStockIsNotReadFromTheQueryCache() {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = "MWH.REACTIVE";
+    warehouse.location = "VETSBY-001";
+    warehouse.capacity = 50;
+    warehouse.stock = 10;
+    warehouse.createdAt = LocalDateTime.now();
+    warehouseRepository.create(warehouse);
+    // cached by the blocking reads
+    assertEquals(10, stockOf("MWH.REACTIVE"));
+    assertEquals(10, stockOf("MWH.REACTIVE"));
+
+    assertEquals(
+        15, reactiveWarehouseRepository.adjustStock("MWH.REACTIVE", 5).await().indefinitely());
+
+    assertEquals(15, stockOf("MWH.REACTIVE"));
+  }
+
+  private int stockOf(String buCode) {
+    return QuarkusTransaction.requiringNew()
+        .call(() -> warehouseRepository.findByBusinessUnitCode(buCode).stock);
+  }
+}
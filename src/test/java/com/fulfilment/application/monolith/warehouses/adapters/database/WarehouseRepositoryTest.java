@@ -0,0 +1,117 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore.ConcurrentWarehouseUpdateException;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class WarehouseRepositoryTest {
+
+  @Inject WarehouseRepository warehouseRepository;
+
+  @Test
+  public void testStaleWarehouseIsNotArchivedInPlaceOfItsReplacement() {
+    warehouseRepository.create(warehouse("MWH.STALE"));
+    Warehouse stale = find("MWH.STALE");
+
+    // replaced in between, the replacement has the same code and stock
+    QuarkusTransaction.requiringNew()
+        .run(
+            () -> {
+              Warehouse current = warehouseRepository.findByBusinessUnitCode("MWH.STALE");
+              current.archivedAt = LocalDateTime.now();
+              warehouseRepository.archive(current);
+              warehouseRepository.create(warehouse("MWH.STALE"));
+            });
+
+    stale.archivedAt = LocalDateTime.now();
+    assertThrows(
+        ConcurrentWarehouseUpdateException.class,
+        () -> QuarkusTransaction.requiringNew().run(() -> warehouseRepository.archive(stale)));
+    assertThrows(
+        ConcurrentWarehouseUpdateException.class,
+        () ->
+            QuarkusTransaction.requiringNew()
+                .run(() -> warehouseRepository.archiveAll(List.of(stale))));
+
+    Warehouse replacement = find("MWH.STALE");
+    assertNotEquals(stale.id, replacement.id);
+    assertEquals(2, warehouseRepository.getHistory("MWH.STALE").size());
+  }
+
+  @Test
+  public void testLocationWithoutWarehousesIsReservedUntilCommit() throws Exception {
+    CountDownLatch reserved = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> first =
+          executor.submit(
+              () ->
+                  QuarkusTransaction.requiringNew()
+                      .run(
+                          () -> {
+                            warehouseRepository.reserveLocations(List.of("UNUSED-001"));
+                            reserved.countDown();
+                            await(release);
+                          }));
+      await(reserved);
+      Future<?> second =
+          executor.submit(
+              () ->
+                  QuarkusTransaction.requiringNew()
+                      .run(() -> warehouseRepository.reserveLocations(List.of("UNUSED-001"))));
+
+      // the second waits for the row the first created
+      Thread.sleep(500);
+      assertFalse(second.isDone());
+      release.countDown();
+      first.get(10, TimeUnit.SECONDS);
+      second.get(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(0, warehouseRepository.getUsageByLocation("UNUSED-001").activeWarehouses);
+    assertFalse(warehouseRepository.getUsageByLocation().containsKey("UNUSED-001"));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Warehouse find(String buCode) {
+    return QuarkusTransaction.requiringNew()
+        .call(() -> warehouseRepository.findByBusinessUnitCode(buCode));
+  }
+
+  private static Warehouse warehouse(String buCode) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = buCode;
+    warehouse.location = "VETSBY-001";
+    warehouse.capacity = 50;
+    warehouse.stock = 10;
+    warehouse.createdAt = LocalDateTime.now();
+    return warehouse;
+  }
+}
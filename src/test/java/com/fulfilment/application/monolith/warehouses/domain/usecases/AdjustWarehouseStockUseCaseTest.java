@@ -0,0 +1,81 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class AdjustWarehouseStockUseCaseTest {
+
+  @Mock private WarehouseStore warehouseStore;
+  @Mock private WarehouseChangePublisher changePublisher;
+
+  private AdjustWarehouseStockUseCase useCase;
+
+  @BeforeEach
+  void setUp() {
+    useCase = new AdjustWarehouseStockUseCase(warehouseStore, changePublisher);
+  }
+
+  @Test
+  void testAdjustStock_Success() {
+    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(existingWarehouse());
+    when(warehouseStore.adjustStock("MWH.001", -4)).thenReturn(6);
+
+    Warehouse warehouse = useCase.adjustStock("MWH.001", -4);
+
+    assertEquals(6, warehouse.stock);
+    verify(changePublisher)
+        .publish(
+            argThat(
+                event ->
+                    event.type == WarehouseChangedEvent.Type.UPDATED
+                        && event.warehouse == warehouse));
+  }
+
+  @Test
+  void testAdjustStock_WarehouseNotFound_ShouldThrow404() {
+    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(null);
+
+    WebApplicationException ex =
+        assertThrows(WebApplicationException.class, () -> useCase.adjustStock("MWH.001", 5));
+    assertEquals(404, ex.getResponse().getStatus());
+    verify(warehouseStore, never()).adjustStock(anyString(), anyInt());
+  }
+
+  @Test
+  void testAdjustStock_OutOfRange_ShouldThrow409() {
+    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(existingWarehouse());
+    // The store refuses the adjustment because the stock would exceed the capacity
+    when(warehouseStore.adjustStock("MWH.001", 95)).thenReturn(null);
+
+    WebApplicationException ex =
+        assertThrows(WebApplicationException.class, () -> useCase.adjustStock("MWH.001", 95));
+    assertEquals(409, ex.getResponse().getStatus());
+  }
+
+  private Warehouse existingWarehouse() {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = "MWH.001";
+    w.location = "ZWOLLE-001";
+    w.capacity = 100;
+    w.stock = 10;
+    return w;
+  }
+}
@@ -1,12 +1,18 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore.ConcurrentWarehouseUpdateException;
+import jakarta.ws.rs.WebApplicationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,12 +23,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 public class ArchiveWarehouseUseCaseTest {
 
   @Mock private WarehouseStore warehouseStore;
+  @Mock private WarehouseChangePublisher changePublisher;
 
   private ArchiveWarehouseUseCase useCase;
 
   @BeforeEach
   void setUp() {
-    useCase = new ArchiveWarehouseUseCase(warehouseStore);
+    useCase = new ArchiveWarehouseUseCase(warehouseStore, changePublisher);
   }
 
   @Test
@@ -32,11 +39,24 @@ public class ArchiveWarehouseUseCaseTest {
     warehouse.location = "ZWOLLE-001";
     warehouse.capacity = 100;
     warehouse.stock = 10;
-    doNothing().when(warehouseStore).update(any());
+    doNothing().when(warehouseStore).archive(any());
 
     useCase.archive(warehouse);
 
     assertNotNull(warehouse.archivedAt);
-    verify(warehouseStore).update(warehouse);
+    verify(warehouseStore).archive(warehouse);
+  }
+
+  @Test
+  void testArchive_ConcurrentUpdate_ShouldThrow409() {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = "MWH.001";
+    doThrow(new ConcurrentWarehouseUpdateException("MWH.001", null))
+        .when(warehouseStore)
+        .archive(any());
+
+    WebApplicationException ex =
+        assertThrows(WebApplicationException.class, () -> useCase.archive(warehouse));
+    assertEquals(409, ex.getResponse().getStatus());
   }
 }
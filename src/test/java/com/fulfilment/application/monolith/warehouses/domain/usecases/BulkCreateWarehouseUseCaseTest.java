@@ -0,0 +1,104 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportResult;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore.DuplicateBusinessUnitCodeException;
+import jakarta.ws.rs.WebApplicationException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkCreateWarehouseUseCaseTest {
+
+  @Mock private WarehouseStore warehouseStore;
+  @Mock private LocationResolver locationResolver;
+  @Mock private WarehouseChangePublisher changePublisher;
+
+  private BulkCreateWarehouseUseCase useCase;
+
+  @BeforeEach
+  void setUp() {
+    useCase = new BulkCreateWarehouseUseCase(warehouseStore, locationResolver, changePublisher);
+  }
+
+  @Test
+  void testCreateAll_ValidatesAgainstSnapshotAndEarlierItems() {
+    // AMSTERDAM-001 takes 2 more warehouses and 30 more capacity
+    when(warehouseStore.getUsageByLocation())
+        .thenReturn(Map.of("AMSTERDAM-001", new LocationUsage("AMSTERDAM-001", 3, 70)));
+    when(warehouseStore.findActiveBusinessUnitCodes(anyCollection()))
+        .thenReturn(Set.of("MWH.001"));
+    when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+        .thenReturn(new Location("AMSTERDAM-001", 5, 100));
+    when(locationResolver.resolveByIdentifier("TILBURG-001"))
+        .thenReturn(new Location("TILBURG-001", 1, 40));
+
+    Warehouse first = warehouse("MWH.100", "AMSTERDAM-001", 20, 5);
+    Warehouse existingCode = warehouse("MWH.001", "AMSTERDAM-001", 5, 5);
+    Warehouse repeatedCode = warehouse("MWH.100", "TILBURG-001", 5, 5);
+    Warehouse overCapacity = warehouse("MWH.101", "AMSTERDAM-001", 20, 5);
+    Warehouse otherLocation = warehouse("MWH.102", "TILBURG-001", 40, 5);
+    Warehouse invalidLocation = warehouse("MWH.103", "UTRECHT-001", 10, 5);
+
+    List<WarehouseImportResult> results =
+        useCase.createAll(
+            List.of(
+                first, existingCode, repeatedCode, overCapacity, otherLocation, invalidLocation));
+
+    assertEquals(6, results.size());
+    assertNull(results.get(0).error);
+    assertTrue(results.get(1).error.startsWith("Business unit code already exists"));
+    assertTrue(results.get(2).error.startsWith("Business unit code already exists"));
+    assertTrue(results.get(3).error.startsWith("Warehouse capacity exceeds"));
+    assertNull(results.get(4).error);
+    assertTrue(results.get(5).error.startsWith("Invalid location"));
+    verify(warehouseStore).createAll(List.of(first, otherLocation));
+  }
+
+  @Test
+  void testCreateAll_ConcurrentDuplicate_ShouldThrow409() {
+    when(warehouseStore.getUsageByLocation()).thenReturn(Map.of());
+    when(warehouseStore.findActiveBusinessUnitCodes(anyCollection())).thenReturn(Set.of());
+    when(locationResolver.resolveByIdentifier("TILBURG-001"))
+        .thenReturn(new Location("TILBURG-001", 1, 40));
+    doThrow(new DuplicateBusinessUnitCodeException(null))
+        .when(warehouseStore)
+        .createAll(any());
+
+    WebApplicationException ex =
+        assertThrows(
+            WebApplicationException.class,
+            () -> useCase.createAll(List.of(warehouse("MWH.100", "TILBURG-001", 20, 5))));
+    assertEquals(409, ex.getResponse().getStatus());
+  }
+
+  private Warehouse warehouse(String code, String location, int capacity, int stock) {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = code;
+    w.location = location;
+    w.capacity = capacity;
+    w.stock = stock;
+    return w;
+  }
+}
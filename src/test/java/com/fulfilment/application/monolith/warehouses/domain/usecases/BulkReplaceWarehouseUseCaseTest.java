@@ -0,0 +1,128 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseReplacementResult;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore.ConcurrentWarehouseUpdateException;
+import jakarta.ws.rs.WebApplicationException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkReplaceWarehouseUseCaseTest {
+
+  @Mock private WarehouseStore warehouseStore;
+  @Mock private LocationResolver locationResolver;
+  @Mock private WarehouseChangePublisher changePublisher;
+
+  private BulkReplaceWarehouseUseCase useCase;
+
+  @BeforeEach
+  void setUp() {
+    useCase = new BulkReplaceWarehouseUseCase(warehouseStore, locationResolver, changePublisher);
+  }
+
+  @Test
+  void testReplaceAll_ArchivesAndCreatesTheWholeBatch() {
+    Warehouse first = warehouse("MWH.001", "AMSTERDAM-001", 100, 10);
+    Warehouse second = warehouse("MWH.012", "TILBURG-001", 40, 5);
+    Warehouse oldFirst = warehouse("MWH.001", "ZWOLLE-001", 50, 10);
+    Warehouse oldSecond = warehouse("MWH.012", "AMSTERDAM-001", 50, 5);
+    when(warehouseStore.findByBusinessUnitCodes(anyCollection()))
+        .thenReturn(Map.of("MWH.001", oldFirst, "MWH.012", oldSecond));
+    when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+        .thenReturn(new Location("AMSTERDAM-001", 5, 100));
+    when(locationResolver.resolveByIdentifier("TILBURG-001"))
+        .thenReturn(new Location("TILBURG-001", 1, 40));
+
+    List<WarehouseReplacementResult> results = useCase.replaceAll(List.of(first, second));
+
+    assertEquals(2, results.size());
+    assertTrue(results.get(0).replaced);
+    assertTrue(results.get(1).replaced);
+    // every location left or entered is reserved up front, then the old warehouses are archived
+    // together and their replacements created together
+    assertNotNull(oldFirst.archivedAt);
+    assertEquals(oldFirst.archivedAt, first.createdAt);
+    InOrder inOrder = inOrder(warehouseStore);
+    inOrder
+        .verify(warehouseStore)
+        .reserveLocations(Set.of("ZWOLLE-001", "AMSTERDAM-001", "TILBURG-001"));
+    inOrder.verify(warehouseStore).archiveAll(List.of(oldFirst, oldSecond));
+    inOrder.verify(warehouseStore).createAll(List.of(first, second));
+    verify(changePublisher, times(2)).publish(any());
+  }
+
+  @Test
+  void testReplaceAll_OneRejected_ReplacesNothing() {
+    when(warehouseStore.findByBusinessUnitCodes(anyCollection()))
+        .thenReturn(Map.of("MWH.001", warehouse("MWH.001", "ZWOLLE-001", 50, 10)));
+    when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+        .thenReturn(new Location("AMSTERDAM-001", 5, 100));
+
+    List<WarehouseReplacementResult> results =
+        useCase.replaceAll(
+            List.of(
+                warehouse("MWH.001", "AMSTERDAM-001", 100, 10),
+                warehouse("MWH.404", "AMSTERDAM-001", 100, 10),
+                warehouse("MWH.001", "AMSTERDAM-001", 100, 10)));
+
+    assertNull(results.get(0).error);
+    assertTrue(results.get(1).error.startsWith("Active warehouse not found"));
+    assertTrue(results.get(2).error.startsWith("Business unit code is replaced more than once"));
+    assertFalse(results.get(0).replaced);
+    verify(warehouseStore, never()).archiveAll(any());
+    verify(warehouseStore, never()).createAll(any());
+    verify(changePublisher, never()).publish(any());
+  }
+
+  @Test
+  void testReplaceAll_ConcurrentUpdate_ShouldThrow409() {
+    when(warehouseStore.findByBusinessUnitCodes(anyCollection()))
+        .thenReturn(Map.of("MWH.001", warehouse("MWH.001", "ZWOLLE-001", 50, 10)));
+    when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+        .thenReturn(new Location("AMSTERDAM-001", 5, 100));
+    doThrow(new ConcurrentWarehouseUpdateException(1)).when(warehouseStore).archiveAll(any());
+
+    WebApplicationException ex =
+        assertThrows(
+            WebApplicationException.class,
+            () -> useCase.replaceAll(List.of(warehouse("MWH.001", "AMSTERDAM-001", 100, 10))));
+    assertEquals(409, ex.getResponse().getStatus());
+    verify(warehouseStore, never()).createAll(any());
+  }
+
+  private Warehouse warehouse(String code, String location, int capacity, int stock) {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = code;
+    w.location = location;
+    w.capacity = capacity;
+    w.stock = stock;
+    return w;
+  }
+}
@@ -3,21 +3,28 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore.DuplicateBusinessUnitCodeException;
 import jakarta.ws.rs.WebApplicationException;
-import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -26,44 +33,60 @@ public class CreateWarehouseUseCaseTest {
 
   @Mock private WarehouseStore warehouseStore;
   @Mock private LocationResolver locationResolver;
+  @Mock private WarehouseChangePublisher changePublisher;
 
   private CreateWarehouseUseCase useCase;
 
   @BeforeEach
   void setUp() {
-    useCase = new CreateWarehouseUseCase(warehouseStore, locationResolver);
+    useCase = new CreateWarehouseUseCase(warehouseStore, locationResolver, changePublisher);
   }
 
   @Test
   void testCreate_Success() {
     Warehouse warehouse = validWarehouse();
-    when(warehouseStore.findByBusinessUnitCode("MWH.NEW")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("TILBURG-001"))
         .thenReturn(new Location("TILBURG-001", 1, 40));
-    when(warehouseStore.getAll()).thenReturn(Collections.emptyList());
+    when(warehouseStore.getUsageByLocation("TILBURG-001"))
+        .thenReturn(new LocationUsage("TILBURG-001", 0, 0));
     doNothing().when(warehouseStore).create(any());
 
     useCase.create(warehouse);
 
-    verify(warehouseStore).create(warehouse);
+    // the location is reserved before its usage is read, so concurrent creates check in turn
+    InOrder inOrder = inOrder(warehouseStore);
+    inOrder.verify(warehouseStore).reserveLocations(List.of("TILBURG-001"));
+    inOrder.verify(warehouseStore).getUsageByLocation("TILBURG-001");
+    inOrder.verify(warehouseStore).create(warehouse);
     assertNotNull(warehouse.createdAt);
+    verify(changePublisher)
+        .publish(
+            argThat(
+                event ->
+                    event.type == WarehouseChangedEvent.Type.CREATED
+                        && event.warehouse == warehouse));
   }
 
   @Test
   void testCreate_DuplicateBusinessUnitCode_ShouldThrow400() {
     Warehouse warehouse = validWarehouse();
-    when(warehouseStore.findByBusinessUnitCode("MWH.NEW")).thenReturn(new Warehouse());
+    when(locationResolver.resolveByIdentifier("TILBURG-001"))
+        .thenReturn(new Location("TILBURG-001", 1, 40));
+    when(warehouseStore.getUsageByLocation("TILBURG-001"))
+        .thenReturn(new LocationUsage("TILBURG-001", 0, 0));
+    // The store rejects the insert because an active warehouse already uses the code
+    doThrow(new DuplicateBusinessUnitCodeException("MWH.NEW", null))
+        .when(warehouseStore)
+        .create(any());
 
     WebApplicationException ex =
         assertThrows(WebApplicationException.class, () -> useCase.create(warehouse));
     assert ex.getResponse().getStatus() == 400;
-    verify(warehouseStore, never()).create(any());
   }
 
   @Test
   void testCreate_InvalidLocation_ShouldThrow400() {
     Warehouse warehouse = validWarehouse();
-    when(warehouseStore.findByBusinessUnitCode("MWH.NEW")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("TILBURG-001")).thenReturn(null);
 
     WebApplicationException ex =
@@ -75,15 +98,12 @@ public class CreateWarehouseUseCaseTest {
   @Test
   void testCreate_MaxWarehousesExceeded_ShouldThrow400() {
     Warehouse warehouse = validWarehouse();
-    when(warehouseStore.findByBusinessUnitCode("MWH.NEW")).thenReturn(null);
     // Location allows only 1 warehouse
     when(locationResolver.resolveByIdentifier("TILBURG-001"))
         .thenReturn(new Location("TILBURG-001", 1, 40));
     // One warehouse already exists at this location
-    Warehouse existing = new Warehouse();
-    existing.location = "TILBURG-001";
-    existing.capacity = 10;
-    when(warehouseStore.getAll()).thenReturn(java.util.List.of(existing));
+    when(warehouseStore.getUsageByLocation("TILBURG-001"))
+        .thenReturn(new LocationUsage("TILBURG-001", 1, 10));
 
     WebApplicationException ex =
         assertThrows(WebApplicationException.class, () -> useCase.create(warehouse));
@@ -95,14 +115,11 @@ public class CreateWarehouseUseCaseTest {
   void testCreate_CapacityExceedsLocationMax_ShouldThrow400() {
     Warehouse warehouse = validWarehouse();
     warehouse.capacity = 40; // same as maxCapacity, no room for existing
-    when(warehouseStore.findByBusinessUnitCode("MWH.NEW")).thenReturn(null);
     // Location capacity max = 40, but 30 already used
     when(locationResolver.resolveByIdentifier("TILBURG-001"))
         .thenReturn(new Location("TILBURG-001", 2, 40));
-    Warehouse existing = new Warehouse();
-    existing.location = "TILBURG-001";
-    existing.capacity = 30;
-    when(warehouseStore.getAll()).thenReturn(java.util.List.of(existing));
+    when(warehouseStore.getUsageByLocation("TILBURG-001"))
+        .thenReturn(new LocationUsage("TILBURG-001", 1, 30));
 
     WebApplicationException ex =
         assertThrows(WebApplicationException.class, () -> useCase.create(warehouse));
@@ -115,10 +132,10 @@ public class CreateWarehouseUseCaseTest {
     Warehouse warehouse = validWarehouse();
     warehouse.capacity = 5;
     warehouse.stock = 10; // stock > capacity
-    when(warehouseStore.findByBusinessUnitCode("MWH.NEW")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("TILBURG-001"))
         .thenReturn(new Location("TILBURG-001", 2, 40));
-    when(warehouseStore.getAll()).thenReturn(Collections.emptyList());
+    when(warehouseStore.getUsageByLocation("TILBURG-001"))
+        .thenReturn(new LocationUsage("TILBURG-001", 0, 0));
 
     WebApplicationException ex =
         assertThrows(WebApplicationException.class, () -> useCase.create(warehouse));
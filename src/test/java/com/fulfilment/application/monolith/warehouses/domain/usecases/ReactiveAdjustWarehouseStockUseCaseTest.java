@@ -0,0 +1,77 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveAdjustWarehouseStockUseCaseTest {
+
+  @Mock private ReactiveWarehouseStore warehouseStore;
+
+  private ReactiveAdjustWarehouseStockUseCase useCase;
+
+  @BeforeEach
+  void setUp() {
+    useCase = new ReactiveAdjustWarehouseStockUseCase(warehouseStore);
+  }
+
+  @Test
+  void testAdjustStock_Success() {
+    when(warehouseStore.findByBusinessUnitCode("MWH.001"))
+        .thenReturn(Uni.createFrom().item(existingWarehouse()));
+    when(warehouseStore.adjustStock("MWH.001", -4)).thenReturn(Uni.createFrom().item(6));
+
+    Warehouse warehouse = useCase.adjustStock("MWH.001", -4).await().indefinitely();
+
+    assertEquals(6, warehouse.stock);
+  }
+
+  @Test
+  void testAdjustStock_WarehouseNotFound_ShouldFailWith404() {
+    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(Uni.createFrom().nullItem());
+
+    WebApplicationException ex =
+        assertThrows(
+            WebApplicationException.class,
+            () -> useCase.adjustStock("MWH.001", 5).await().indefinitely());
+    assertEquals(404, ex.getResponse().getStatus());
+    verify(warehouseStore, never()).adjustStock(anyString(), anyInt());
+  }
+
+  @Test
+  void testAdjustStock_OutOfRange_ShouldFailWith409() {
+    when(warehouseStore.findByBusinessUnitCode("MWH.001"))
+        .thenReturn(Uni.createFrom().item(existingWarehouse()));
+    when(warehouseStore.adjustStock("MWH.001", 95)).thenReturn(Uni.createFrom().nullItem());
+
+    WebApplicationException ex =
+        assertThrows(
+            WebApplicationException.class,
+            () -> useCase.adjustStock("MWH.001", 95).await().indefinitely());
+    assertEquals(409, ex.getResponse().getStatus());
+  }
+
+  private Warehouse existingWarehouse() {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = "MWH.001";
+    w.location = "ZWOLLE-001";
+    w.capacity = 100;
+    w.stock = 10;
+    return w;
+  }
+}
@@ -3,19 +3,25 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseChangePublisher;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.ws.rs.WebApplicationException;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -24,12 +30,13 @@ public class ReplaceWarehouseUseCaseTest {
 
   @Mock private WarehouseStore warehouseStore;
   @Mock private LocationResolver locationResolver;
+  @Mock private WarehouseChangePublisher changePublisher;
 
   private ReplaceWarehouseUseCase useCase;
 
   @BeforeEach
   void setUp() {
-    useCase = new ReplaceWarehouseUseCase(warehouseStore, locationResolver);
+    useCase = new ReplaceWarehouseUseCase(warehouseStore, locationResolver, changePublisher);
   }
 
   @Test
@@ -39,17 +46,28 @@ public class ReplaceWarehouseUseCaseTest {
     when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(oldWarehouse);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
         .thenReturn(new Location("AMSTERDAM-001", 5, 100));
-    doNothing().when(warehouseStore).update(any());
+    doNothing().when(warehouseStore).archive(any());
     doNothing().when(warehouseStore).create(any());
 
     useCase.replace(newWarehouse);
 
+    // Both locations are reserved before the old warehouse is archived and the new one created.
+    InOrder inOrder = inOrder(warehouseStore);
+    inOrder
+        .verify(warehouseStore)
+        .reserveLocations(List.of(oldWarehouse.location, newWarehouse.location));
+    inOrder.verify(warehouseStore).archive(oldWarehouse);
+    inOrder.verify(warehouseStore).create(newWarehouse);
     // Old warehouse must be archived.
     assertNotNull(oldWarehouse.archivedAt);
-    verify(warehouseStore).update(oldWarehouse);
     // New warehouse must be created.
     assertNotNull(newWarehouse.createdAt);
-    verify(warehouseStore).create(newWarehouse);
+    verify(changePublisher)
+        .publish(
+            argThat(
+                event ->
+                    event.type == WarehouseChangedEvent.Type.REPLACED
+                        && event.warehouse == newWarehouse));
   }
 
   @Test
@@ -60,7 +78,7 @@ public class ReplaceWarehouseUseCaseTest {
     WebApplicationException ex =
         assertThrows(WebApplicationException.class, () -> useCase.replace(newWarehouse));
     assert ex.getResponse().getStatus() == 404;
-    verify(warehouseStore, never()).update(any());
+    verify(warehouseStore, never()).archive(any());
     verify(warehouseStore, never()).create(any());
   }
 